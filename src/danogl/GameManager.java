@@ -4,6 +4,7 @@ import danogl.collisions.GameObjectCollection;
 import danogl.components.CoordinateSpace;
 import danogl.gui.mouse.MouseActionParams;
 import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.util.*;
 import danogl.gui.*;
 import java.awt.*;
@@ -29,6 +30,8 @@ public class GameManager {
     private GameGUIComponent gameGUIComponent;
     private Camera camera;
     private NotifyOfMouseActions mouseActionNotifier;
+    private float interpolationAlpha = 1;
+    private final FrameProfiler profiler = new FrameProfiler();
 
     /**
      * Creates a new full-screen window with a default title.
@@ -98,15 +101,21 @@ public class GameManager {
             WindowController windowController) {
         gameObjects = new GameObjectCollection();
         mouseActionNotifier = new NotifyOfMouseActions(this, inputListener);
-        gameGUIComponent.addMouseListener(mouseActionNotifier);
-        gameGUIComponent.addMouseWheelListener(mouseActionNotifier);
+        //there is no window when the game is run by a HeadlessGameRunner
+        if(gameGUIComponent != null) {
+            gameGUIComponent.addMouseListener(mouseActionNotifier);
+            gameGUIComponent.addMouseWheelListener(mouseActionNotifier);
+        }
         setCamera(null);
     }
 
     /**
      * Called once per frame. Any logic is put here. Rendering, on the other hand,
      * should only be done within 'render'.
-     * Note that the time that passes between subsequent calls to this method is not constant.
+     * Note that the time that passes between subsequent calls to this method is not constant,
+     * unless the game is updated in fixed time-steps
+     * (see {@link WindowController#setFixedTimeStep(int, int)}), in which case the method
+     * may be called zero or more times per frame.
      * @param deltaTime The time, in seconds, that passed since the last invocation
      *                  of this method (i.e., since the last frame). This is useful
      *                  for either accumulating the total time that passed since some
@@ -115,13 +124,22 @@ public class GameManager {
      *                  by the velocity to get an estimate of the difference in position).
      */
     public void update(float deltaTime) {
+        //a new frame: the objects that change from here on are dirty
+        gameObjects.clearDirtyObjects();
         //update all objects and look for collisions.
-        for(GameObject obj : gameObjects)
-            obj.update(deltaTime);
+        profiler.start(FrameProfiler.Phase.UPDATE_OBJECTS);
+        gameObjects.integrateAll(deltaTime);
+        for(int i = 0 ; i < gameObjects.objectCount() ; i++)
+            gameObjects.objectAt(i).update(deltaTime);
         if(camera != null)
             camera.update(deltaTime);
+        profiler.stop(FrameProfiler.Phase.UPDATE_OBJECTS);
+        profiler.start(FrameProfiler.Phase.FLUSH_CHANGES);
         gameObjects.update(deltaTime);
+        profiler.stop(FrameProfiler.Phase.FLUSH_CHANGES);
+        profiler.start(FrameProfiler.Phase.HANDLE_COLLISIONS);
         gameObjects.handleCollisions();
+        profiler.stop(FrameProfiler.Phase.HANDLE_COLLISIONS);
     }
 
     /**
@@ -130,8 +148,46 @@ public class GameManager {
      * @param g A utility object for drawing shapes, text, and images.
      */
     public void render(Graphics2D g) {
-        for (GameObject obj : gameObjects)
-            obj.render(g, camera);
+        for(int i = 0 ; i < gameObjects.objectCount() ; i++)
+            gameObjects.objectAt(i).render(g, camera, interpolationAlpha);
+    }
+
+    /**
+     * Called automatically every frame; invokes {@link #render(Graphics2D)}, with
+     * the objects rendered between their positions before and after the last update.
+     * The value of alpha is 1 (the positions after the last update) unless the game is
+     * updated in fixed time-steps (see {@link WindowController#setFixedTimeStep(int, int)}),
+     * in which case interpolating keeps the motion smooth at any framerate.
+     * @param g A utility object for drawing shapes, text, and images.
+     * @param alpha How far the frame is between the previous update (0) and the last one (1).
+     */
+    public void render(Graphics2D g, float alpha) {
+        interpolationAlpha = alpha;
+        render(g);
+        interpolationAlpha = 1;
+    }
+
+    /**
+     * Called automatically every frame instead of {@link #render(Graphics2D)} when
+     * rendering is pipelined (see {@link WindowController#setPipelinedRendering(boolean)}):
+     * rather than rendering the objects, adds them to a snapshot of the frame, which
+     * is rendered on another thread while the next frame is updated.
+     * @param snapshot An empty snapshot of the frame, to add the objects to.
+     * @param alpha How far the frame is between the previous update (0) and the last one (1);
+     *              see {@link #render(Graphics2D, float)}.
+     */
+    public void captureRenderSnapshot(RenderSnapshot snapshot, float alpha) {
+        for(int i = 0 ; i < gameObjects.objectCount() ; i++)
+            gameObjects.objectAt(i).captureRenderState(snapshot, camera, alpha);
+    }
+
+    /**
+     * The profiler that times the phases of every frame. It is disabled by default;
+     * enable it to start timing, or create an overlay that displays its measurements
+     * with {@link FPSCounter#create(Vector2, int, Color, FrameProfiler)}.
+     */
+    public FrameProfiler profiler() {
+        return profiler;
     }
 
     /**
@@ -170,7 +226,8 @@ public class GameManager {
         var mouseScreenPos = params.getMouseScreenPos();
         var mouseWorldPos = params.getMouseWorldPos();
 
-        for(var obj : gameObjects.reverseOrder()) {
+        for(int i = gameObjects.objectCount()-1 ; i >= 0 ; i--) {
+            var obj = gameObjects.objectAt(i);
             var mousePos =
                     obj.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES?
                     mouseScreenPos: mouseWorldPos;
@@ -7,6 +7,7 @@ import danogl.collisions.Collision;
 import danogl.components.Component;
 import danogl.gui.mouse.MouseActionParams;
 import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
 import danogl.util.ModifiableList;
 import danogl.util.MutableVector2;
@@ -85,17 +86,66 @@ public class GameObject {
      * @param camera The active camera
      */
     public void render(Graphics2D g, Camera camera) {
-        if(camera == null || coordinateSpace == CoordinateSpace.CAMERA_COORDINATES) {
+        if(isInScreenCoordinates(camera)) {
             render(g);
             return;
         }
-        if(coordinateSpace != CoordinateSpace.WORLD_COORDINATES)
-            throw new UnsupportedOperationException(coordinateSpace + ": Unsupported coordinate space");
+        renderer.render(g, camera.worldToScreenCoords(getTopLeftCorner()), screenDimensions(camera));
+    }
+
+    /**
+     * Renders the game object between its position at the start of the last update
+     * and its current one (see {@link Transform#getInterpolatedTopLeftCorner(float)}).
+     * Used when the game is updated in fixed time-steps, to render frames that fall
+     * between two updates. When alpha is 1, i.e. no interpolation is needed,
+     * invokes {@link #render(Graphics2D, Camera)}; override this method as well for
+     * an object that renders itself differently to be interpolated.
+     * @param g The graphics objects passed to GameManager.render.
+     * @param camera The active camera
+     * @param alpha How far the frame is between the previous update (0) and the last one (1).
+     */
+    public void render(Graphics2D g, Camera camera, float alpha) {
+        if(alpha >= 1) {
+            render(g, camera);
+            return;
+        }
+        renderer.render(g, screenTopLeftCorner(camera, alpha), screenDimensions(camera));
+    }
+
+    /**
+     * Adds the game object to a snapshot of the frame, to be rendered later,
+     * possibly on another thread. Otherwise the same as {@link #render(Graphics2D, Camera, float)}.
+     * @param snapshot The snapshot of the frame.
+     * @param camera The active camera
+     * @param alpha How far the frame is between the previous update (0) and the last one (1).
+     */
+    public void captureRenderState(RenderSnapshot snapshot, Camera camera, float alpha) {
+        renderer.capture(snapshot, screenTopLeftCorner(camera, alpha), screenDimensions(camera));
+    }
+
+    private Vector2 screenTopLeftCorner(Camera camera, float alpha) {
+        var topLeftCorner = transform.getInterpolatedTopLeftCorner(alpha);
+        if(isInScreenCoordinates(camera))
+            return topLeftCorner;
+        return camera.worldToScreenCoords(topLeftCorner, alpha);
+    }
+
+    private Vector2 screenDimensions(Camera camera) {
+        if(isInScreenCoordinates(camera))
+            return transform.getDimensions();
         //then coords are in world space, translate to screen space
         float dimFactorX = camera.windowDimensions().x()/camera.getDimensions().x();
         float dimFactorY = camera.windowDimensions().y()/camera.getDimensions().y();
         freeCalculationsVector.setXY(getDimensions().x()*dimFactorX,getDimensions().y()*dimFactorY);
-        renderer.render(g, camera.worldToScreenCoords(getTopLeftCorner()), freeCalculationsVector);
+        return freeCalculationsVector;
+    }
+
+    private boolean isInScreenCoordinates(Camera camera) {
+        if(camera == null || coordinateSpace == CoordinateSpace.CAMERA_COORDINATES)
+            return true;
+        if(coordinateSpace != CoordinateSpace.WORLD_COORDINATES)
+            throw new UnsupportedOperationException(coordinateSpace + ": Unsupported coordinate space");
+        return false;
     }
 
     /**
@@ -132,6 +182,9 @@ public class GameObject {
 
     /**
      * Called once, AFTER a collision ended.
+     * If the objects' bounds no longer overlap, it is called after the enter and stay
+     * callbacks of the frame's other collisions (see
+     * {@link danogl.collisions.GameObjectCollection#handleCollisions()}).
      * @param other The former collision partner.
      */
     public void onCollisionExit(GameObject other) { }
@@ -297,7 +350,7 @@ public class GameObject {
      * @return true iff the collider contains the given point
      */
     public boolean containsPoint(Vector2 point) {
-        return physics.collider().containsPoint(worldToObjectCoords(point));
+        return physics.collider().containsPoint(worldToObjectCoords(point), getDimensions());
     }
 
     /**
@@ -1,6 +1,7 @@
 package danogl.collisions.AABB;
 
 import danogl.collisions.Collider;
+import danogl.collisions.ColliderTypes;
 import danogl.util.Vector2;
 
 import java.awt.geom.Rectangle2D;
@@ -11,6 +12,7 @@ import java.awt.geom.Rectangle2D;
  */
 public class AABBCollider implements Collider {
     public static final String AABB_COLLIDER_TYPE = "AABB";
+    public static final int AABB_COLLIDER_TYPE_ID = ColliderTypes.idOf(AABB_COLLIDER_TYPE);
     private Rectangle2D.Float rectangle;
 
     /**
@@ -28,11 +30,21 @@ public class AABBCollider implements Collider {
         return AABB_COLLIDER_TYPE;
     }
 
+    @Override
+    public int colliderTypeId() {
+        return AABB_COLLIDER_TYPE_ID;
+    }
+
     @Override
     public boolean containsPoint(Vector2 point) {
         return rectangle.contains(point.x(), point.y());
     }
 
+    @Override
+    public void boundingRectangle(Rectangle2D.Float container) {
+        container.setRect(rectangle);
+    }
+
     /**
      * Returns the rectangle represented by this collider,
      * in object-coordinates (not world).
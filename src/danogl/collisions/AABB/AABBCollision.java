@@ -30,10 +30,7 @@ class AABBCollision implements Collision {
     public Vector2 getNormal() {
         if(normal == null)
             normal = new MutableVector2();
-        var x = pairCollisionData.getIntersectionRect();
         pairCollisionData.updateIntersectionRect();
-        x = pairCollisionData.getIntersectionRect();
-        var y = x.getCenterX();
         normal.setX((float)(pairCollisionData.getRectWorld(myIndex).getCenterX()
                 -pairCollisionData.getIntersectionRect().getCenterX()));
         normal.setY((float)(pairCollisionData.getRectWorld(myIndex).getCenterY()
@@ -11,11 +11,19 @@ import java.awt.geom.Rectangle2D;
  * @author Dan Nirel
  */
 class AABBPairCollisionData extends PairCollisionData {
-    private int lastCalcedHash;
-    private Rectangle2D.Float rect1World, rect2World;
-    private Rectangle2D.Float intersectionRect;
+    private final Rectangle2D.Float rect1World = new Rectangle2D.Float();
+    private final Rectangle2D.Float rect2World = new Rectangle2D.Float();
+    private final Rectangle2D.Float intersectionRect = new Rectangle2D.Float();
+    private boolean isIntersecting = false;
     private boolean alreadyComputedIntersectionRectThisFrame = false;
 
+    //what the intersection rect was last computed from
+    private boolean wasEverComputed = false;
+    private int lastVersion1, lastVersion2;
+    private AABBCollider lastCollider1, lastCollider2;
+    private final Rectangle2D.Float lastColliderRect1 = new Rectangle2D.Float();
+    private final Rectangle2D.Float lastColliderRect2 = new Rectangle2D.Float();
+
     public AABBPairCollisionData(GameObject go1,GameObject go2) {
         super(go1, go2);
         collision1 = new AABBCollision(this, 0);
@@ -33,14 +41,8 @@ class AABBPairCollisionData extends PairCollisionData {
         if(alreadyComputedIntersectionRectThisFrame || !hasAnythingChanged())
             return;
 
-        if(rect1World == null) {
-            rect1World = new Rectangle2D.Float();
-            rect2World = new Rectangle2D.Float();
-        }
-
-        intersectionRect =
-            AABBPairCollisionHandler.calcIntersectionRect(
-                    go1(), go2(), rect1World, rect2World);
+        isIntersecting = AABBPairCollisionHandler.calcIntersectionRect(
+                go1(), go2(), rect1World, rect2World, intersectionRect);
 
         alreadyComputedIntersectionRectThisFrame = true;
     }
@@ -48,7 +50,7 @@ class AABBPairCollisionData extends PairCollisionData {
     @Override
     public boolean areColliding() {
         updateIntersectionRect();
-        return intersectionRect != null && !intersectionRect.isEmpty();
+        return isIntersecting && !intersectionRect.isEmpty();
     }
 
     public Rectangle2D.Float getRectWorld(int index) {
@@ -59,19 +61,33 @@ class AABBPairCollisionData extends PairCollisionData {
         return intersectionRect;
     }
 
+    /**
+     * Compares the versions of the objects' transforms, and their colliders,
+     * to those the intersection rect was last computed from; updates them if different.
+     */
     private boolean hasAnythingChanged() {
-        if(rect1World == null)
-            return true; //then wasn't ever inited
-        int newHash =
-                go1().getTopLeftCorner().hashCode()
-                        + 31*go2().getTopLeftCorner().hashCode()
-                        + go1().getDimensions().hashCode()
-                        + go2().getDimensions().hashCode()
-                        + ((AABBCollider)go1().physics().collider()).getRectangle().hashCode()
-                        + ((AABBCollider)go2().physics().collider()).getRectangle().hashCode();
-        if(newHash == lastCalcedHash)
+        int version1 = go1().transform().getVersion();
+        int version2 = go2().transform().getVersion();
+        var collider1 = (AABBCollider)go1().physics().collider();
+        var collider2 = (AABBCollider)go2().physics().collider();
+        if(wasEverComputed
+                && version1 == lastVersion1 && version2 == lastVersion2
+                && collider1 == lastCollider1 && collider2 == lastCollider2
+                && isSameRect(collider1.getRectangle(), lastColliderRect1)
+                && isSameRect(collider2.getRectangle(), lastColliderRect2))
             return false;
-        lastCalcedHash = newHash;
+        wasEverComputed = true;
+        lastVersion1 = version1;
+        lastVersion2 = version2;
+        lastCollider1 = collider1;
+        lastCollider2 = collider2;
+        lastColliderRect1.setRect(collider1.getRectangle());
+        lastColliderRect2.setRect(collider2.getRectangle());
         return true;
     }
+
+    private static boolean isSameRect(Rectangle2D.Float rect1, Rectangle2D.Float rect2) {
+        return rect1.x == rect2.x && rect1.y == rect2.y
+                && rect1.width == rect2.width && rect1.height == rect2.height;
+    }
 }
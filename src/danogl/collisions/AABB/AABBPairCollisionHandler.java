@@ -20,7 +20,7 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
         if(!supportsPair(go1, go2))
             return null;
 
-        if(calcIntersectionRect(go1, go2, rect1World, rect2World) == null)
+        if(!intersects(go1, go2, rect1World, rect2World))
             return null;
 
         return new AABBPairCollisionData(go1, go2);
@@ -28,8 +28,8 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
 
     @Override
     public boolean supportsPair(GameObject go1, GameObject go2) {
-        return go1.physics().collider().colliderType().equals(AABBCollider.AABB_COLLIDER_TYPE) &&
-                go2.physics().collider().colliderType().equals(AABBCollider.AABB_COLLIDER_TYPE);
+        return go1.physics().collider().colliderTypeId() == AABBCollider.AABB_COLLIDER_TYPE_ID &&
+                go2.physics().collider().colliderTypeId() == AABBCollider.AABB_COLLIDER_TYPE_ID;
     }
 
     /**
@@ -51,6 +51,54 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
             rect2World = new Rectangle2D.Float();
         }
 
+        var intersection = new Rectangle2D.Float();
+        if(!calcIntersectionRect(go1, go2, rect1World, rect2World, intersection))
+            return null;
+        return intersection;
+    }
+
+    /**
+     * Calculates the intersection rect of two game objects into a given container,
+     * without allocating.
+     * @param go1 game object 1
+     * @param go2 game object 2
+     * @param rect1World a container for the world space rect of game object 1. updated.
+     * @param rect2World a container for the world space rect of game object 2. updated.
+     * @param intersection a container for the intersection rectangle.
+     *                     updated only if the objects intersect.
+     * @return whether the objects intersect.
+     */
+    public static boolean calcIntersectionRect(
+            GameObject go1, GameObject go2,
+            Rectangle2D.Float rect1World, Rectangle2D.Float rect2World,
+            Rectangle2D.Float intersection) {
+        if(!intersects(go1, go2, rect1World, rect2World))
+            return false;
+        //in doubles, like Rectangle2D.intersect, to get the very same rectangle
+        double minX = Math.max((double)rect1World.x, rect2World.x);
+        double minY = Math.max((double)rect1World.y, rect2World.y);
+        double maxX = Math.min((double)rect1World.x + rect1World.width,
+                (double)rect2World.x + rect2World.width);
+        double maxY = Math.min((double)rect1World.y + rect1World.height,
+                (double)rect2World.y + rect2World.height);
+        intersection.setRect(minX, minY, maxX - minX, maxY - minY);
+        return true;
+    }
+
+    /**
+     * Checks whether the colliders of two game objects intersect, without allocating.
+     * Only reads the objects, so it may be called from several threads at once
+     * (with different containers).
+     * @param go1 game object 1
+     * @param go2 game object 2
+     * @param rect1World a container for the world space rect of game object 1. updated.
+     * @param rect2World a container for the world space rect of game object 2. updated.
+     * @return whether the objects intersect, as in {@link #calcIntersectionRect}.
+     */
+    public static boolean intersects(
+            GameObject go1, GameObject go2,
+            Rectangle2D.Float rect1World, Rectangle2D.Float rect2World) {
+
         var rect1 = ((AABBCollider)go1.physics().collider()).getRectangle();
         var rect2 = ((AABBCollider)go2.physics().collider()).getRectangle();
 
@@ -68,8 +116,6 @@ public class AABBPairCollisionHandler implements PairCollisionHandler {
                 rect2.width * go2.getDimensions().x(),
                 rect2.height * go2.getDimensions().y());
 
-        if(!rect1World.intersects(rect2World))
-            return null;
-        return (Rectangle2D.Float) rect1World.createIntersection(rect2World);
+        return rect1World.intersects(rect2World);
     }
 }
@@ -0,0 +1,29 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The trivial broadphase: reports every pair of objects from the two layers.
+ * Its cost is quadratic in the number of objects, so it is only preferable
+ * for very small scenes, or as a reference for other implementations.
+ * @author Dan Nirel
+ */
+public class AllPairsBroadphase implements Broadphase {
+    @Override
+    public void findPairs(ModifiableList<GameObject> layerObjs1,
+                          ModifiableList<GameObject> layerObjs2,
+                          BiConsumer<GameObject, GameObject> pairHandler) {
+        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
+            int ind2 = 0;
+            if(layerObjs1 == layerObjs2)
+                ind2 = ind1 + 1;
+            for(; ind2 < layerObjs2.size() ; ind2++) {
+                if(layerObjs1.get(ind1) != layerObjs2.get(ind2))
+                    pairHandler.accept(layerObjs1.get(ind1), layerObjs2.get(ind2));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.awt.geom.Rectangle2D;
+import java.util.function.BiConsumer;
+
+/**
+ * The broadphase of the collision detection: narrows down the pairs of GameObjects
+ * that should be checked for an actual collision (the narrowphase) to those whose
+ * bounding rectangles overlap.
+ * A separate instance is created for every pair of layers that are set to collide
+ * (see {@link LayerManager#shouldLayersCollide(int, int, boolean)}), so an
+ * implementation may cache data regarding its pair of layers between frames.
+ * @author Dan Nirel
+ * @see GameObjectCollection#setBroadphase(java.util.function.Supplier)
+ */
+public interface Broadphase {
+    /**
+     * Reports the candidate pairs of the two layers. Every pair of objects whose world-space
+     * bounding rectangles overlap must be reported; other pairs may or may not be reported.
+     * Pairs are reported as (object of layerObjs1, object of layerObjs2), ordered first by the index
+     * of the first object and then by the index of the second, just as a nested loop over
+     * both lists would report them.
+     * @param layerObjs1 the objects of the first layer
+     * @param layerObjs2 the objects of the second layer. If this is the same list as layerObjs1,
+     *                   each pair is reported once, with the lower index first,
+     *                   and an object is never paired with itself.
+     * @param pairHandler receives the candidate pairs
+     */
+    void findPairs(ModifiableList<GameObject> layerObjs1,
+                   ModifiableList<GameObject> layerObjs2,
+                   BiConsumer<GameObject, GameObject> pairHandler);
+
+    /**
+     * Calculates the world-space rectangle bounding the collider of a GameObject.
+     * @param go the game object
+     * @param container updated with the bounding rectangle
+     * @return the container
+     */
+    static Rectangle2D.Float worldBounds(GameObject go, Rectangle2D.Float container) {
+        var corner = go.getTopLeftCorner();
+        var dimensions = go.getDimensions();
+        go.physics().collider().boundingRectangle(dimensions, container);
+        container.setRect(
+                corner.x() + container.x*dimensions.x(),
+                corner.y() + container.y*dimensions.y(),
+                container.width*dimensions.x(),
+                container.height*dimensions.y());
+        return container;
+    }
+}
@@ -2,6 +2,8 @@ package danogl.collisions;
 
 import danogl.util.Vector2;
 
+import java.awt.geom.Rectangle2D;
+
 /**
  * Represents a general shape which specific shapes of GameObjects implement.
  * All Computations at the collider level are in object-coordinates (not world coordinates).
@@ -15,10 +17,51 @@ public interface Collider {
      */
     String colliderType();
 
+    /**
+     * The id of the collider type, as registered in {@link ColliderTypes}.
+     * Used by the collisions engine to find the handler of a pair of colliders.
+     * The default implementation looks the type up on every call; implementations
+     * should override it to return an id kept in a constant.
+     */
+    default int colliderTypeId() {
+        return ColliderTypes.idOf(colliderType());
+    }
+
     /**
      * Returns whether the given point is included in the collider.
      * Note that this method takes object-coordinates, not world! To query
      * regarding a point in world-coordinates, see {@link danogl.GameObject#containsPoint(Vector2)}.
      */
     boolean containsPoint(Vector2 point);
+
+    /**
+     * Returns whether the given point, in object-coordinates, is included in the collider
+     * of an object of the given dimensions. Colliders whose shape depends on the proportions
+     * of the object (such as circles) should override it; the default implementation
+     * ignores the dimensions.
+     */
+    default boolean containsPoint(Vector2 point, Vector2 dimensions) {
+        return containsPoint(point);
+    }
+
+    /**
+     * Sets the supplied container to a rectangle bounding the collider, in object-coordinates.
+     * Used by the broadphase to rule out pairs of objects that cannot collide.
+     * The default implementation bounds the entire object, i.e. (0,0) to (1,1).
+     * @param container the rectangle to update
+     */
+    default void boundingRectangle(Rectangle2D.Float container) {
+        container.setRect(0, 0, 1, 1);
+    }
+
+    /**
+     * As {@link #boundingRectangle(Rectangle2D.Float)}, for an object of the given dimensions.
+     * Colliders whose shape depends on the proportions of the object should override it;
+     * the default implementation ignores the dimensions.
+     * @param dimensions the object's dimensions, in world-coordinates
+     * @param container the rectangle to update, in object-coordinates
+     */
+    default void boundingRectangle(Vector2 dimensions, Rectangle2D.Float container) {
+        boundingRectangle(container);
+    }
 }
@@ -0,0 +1,52 @@
+package danogl.collisions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of the collider types (see {@link Collider#colliderType()}), which assigns
+ * every type a small integer id: 0 for the first type registered, 1 for the next and so on.
+ * The ids allow the collisions engine to find the handler of a pair of colliders
+ * in a table rather than by comparing strings.
+ * Collider implementations should look their id up once, and keep it in a constant:
+ * <pre>
+ * public static final int CIRCLE_COLLIDER_TYPE_ID = ColliderTypes.idOf("Circle");
+ * </pre>
+ * @author Dan Nirel
+ */
+public final class ColliderTypes {
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static final List<String> names = new ArrayList<>();
+
+    private ColliderTypes() { }
+
+    /**
+     * Returns the id of a collider type, registering the type if it wasn't already.
+     * @param colliderType the type, as returned by {@link Collider#colliderType()}
+     */
+    public static synchronized int idOf(String colliderType) {
+        var id = ids.get(colliderType);
+        if(id != null)
+            return id;
+        ids.put(colliderType, names.size());
+        names.add(colliderType);
+        return names.size() - 1;
+    }
+
+    /**
+     * Returns the collider type of a registered id.
+     * @throws IndexOutOfBoundsException if no type has that id
+     */
+    public static synchronized String nameOf(int colliderTypeId) {
+        return names.get(colliderTypeId);
+    }
+
+    /**
+     * The number of registered types; every id is smaller.
+     */
+    public static synchronized int count() {
+        return names.size();
+    }
+}
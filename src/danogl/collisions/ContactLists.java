@@ -0,0 +1,84 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * package-private. The contacts (pairs in collision) of every object, as intrusive doubly-linked
+ * lists threaded through the PairCollisionData instances themselves: every pair is linked
+ * into the list of each of its two objects.
+ * Thus the contacts of an object are found, and unlinked, in time proportional to their number,
+ * without allocating. The lists' heads are indexed by the slots of the objects
+ * (see {@link GameObjectCollection#slotOf(GameObject)}).
+ * @author Dan Nirel
+ */
+class ContactLists {
+    private final GameObjectIds ids;
+    private PairCollisionData[] heads = new PairCollisionData[64];
+
+    /**
+     * @param ids the ids and slots of the objects of the collection
+     */
+    ContactLists(GameObjectIds ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Links a new contact into the lists of its two objects.
+     */
+    void link(PairCollisionData contact) {
+        linkTo(contact, contact.go1());
+        linkTo(contact, contact.go2());
+    }
+
+    /**
+     * Unlinks a contact from the lists of its two objects.
+     */
+    void unlink(PairCollisionData contact) {
+        unlinkFrom(contact, contact.go1());
+        unlinkFrom(contact, contact.go2());
+    }
+
+    /**
+     * Unlinks every contact of an object, passing each to the consumer after it was unlinked.
+     */
+    void unlinkAllOf(GameObject go, Consumer<PairCollisionData> unlinkedContactConsumer) {
+        int slot = ids.slotOf(go);
+        if(slot == GameObjectCollection.NO_ID || slot >= heads.length)
+            return;
+        var contact = heads[slot];
+        while(contact != null) {
+            var next = contact.nextContactOf(go);
+            unlink(contact);
+            unlinkedContactConsumer.accept(contact);
+            contact = next;
+        }
+    }
+
+    private void linkTo(PairCollisionData contact, GameObject go) {
+        int slot = ids.slotOf(go);
+        if(slot >= heads.length)
+            heads = Arrays.copyOf(heads, Math.max(slot + 1, 2*heads.length));
+        var head = heads[slot];
+        contact.setPreviousContactOf(go, null);
+        contact.setNextContactOf(go, head);
+        if(head != null)
+            head.setPreviousContactOf(go, contact);
+        heads[slot] = contact;
+    }
+
+    private void unlinkFrom(PairCollisionData contact, GameObject go) {
+        var previous = contact.previousContactOf(go);
+        var next = contact.nextContactOf(go);
+        if(next != null)
+            next.setPreviousContactOf(go, previous);
+        if(previous != null)
+            previous.setNextContactOf(go, next);
+        else
+            heads[ids.slotOf(go)] = next;
+        contact.setPreviousContactOf(go, null);
+        contact.setNextContactOf(go, null);
+    }
+}
@@ -0,0 +1,135 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+/**
+ * package-private. The collision data of the pairs currently in collision, keyed by their
+ * (unordered) pair of objects. An open-addressing hash table with linear probing, hashing
+ * the ids of the objects (see {@link GameObjectCollection#idOf(GameObject)}):
+ * lookups neither allocate nor depend on the order of the two objects.
+ * @author Dan Nirel
+ */
+class ContactTable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float MAX_LOAD_FACTOR = 0.5f;
+
+    private final GameObjectIds ids;
+
+    private PairCollisionData[] contacts = new PairCollisionData[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param ids the ids and slots of the objects of the collection. The objects of a pair
+     *            should keep their ids while the pair is in the table.
+     */
+    ContactTable(GameObjectIds ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the collision data of the pair, in either order, or null if the pair isn't in the table.
+     */
+    PairCollisionData get(GameObject go1, GameObject go2) {
+        int hash = hash(go1, go2);
+        int mask = contacts.length - 1;
+        for(int slot = hash & mask ; contacts[slot] != null ; slot = (slot + 1) & mask) {
+            if(hashes[slot] == hash && isPairOf(contacts[slot], go1, go2))
+                return contacts[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Adds the collision data of a pair which isn't already in the table.
+     */
+    void put(PairCollisionData contact) {
+        if(size + 1 > contacts.length * MAX_LOAD_FACTOR)
+            resize(2 * contacts.length);
+        insert(contact, hash(contact.go1(), contact.go2()));
+        size++;
+    }
+
+    /**
+     * Removes the collision data of a pair.
+     * @return false if it wasn't in the table.
+     */
+    boolean remove(PairCollisionData contact) {
+        int hash = hash(contact.go1(), contact.go2());
+        int mask = contacts.length - 1;
+        int slot = hash & mask;
+        while(contacts[slot] != contact) {
+            if(contacts[slot] == null)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        //shift back the following entries of the probe sequence, instead of leaving a tombstone
+        int empty = slot;
+        for(slot = (slot + 1) & mask ; contacts[slot] != null ; slot = (slot + 1) & mask) {
+            int home = hashes[slot] & mask;
+            //can the entry at slot move to empty without leaving its probe sequence?
+            if(((slot - home) & mask) >= ((slot - empty) & mask)) {
+                contacts[empty] = contacts[slot];
+                hashes[empty] = hashes[slot];
+                empty = slot;
+            }
+        }
+        contacts[empty] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * The number of pairs in the table.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * The number of slots in the table; slots are accessed using {@link #contactAt(int)}.
+     */
+    int capacity() {
+        return contacts.length;
+    }
+
+    /**
+     * The contact in the given slot, or null if the slot is empty.
+     * Allows iterating the table without allocating.
+     */
+    PairCollisionData contactAt(int slot) {
+        return contacts[slot];
+    }
+
+    private void insert(PairCollisionData contact, int hash) {
+        int mask = contacts.length - 1;
+        int slot = hash & mask;
+        while(contacts[slot] != null)
+            slot = (slot + 1) & mask;
+        contacts[slot] = contact;
+        hashes[slot] = hash;
+    }
+
+    private void resize(int capacity) {
+        var oldContacts = contacts;
+        var oldHashes = hashes;
+        contacts = new PairCollisionData[capacity];
+        hashes = new int[capacity];
+        for(int slot = 0 ; slot < oldContacts.length ; slot++) {
+            if(oldContacts[slot] != null)
+                insert(oldContacts[slot], oldHashes[slot]);
+        }
+    }
+
+    private static boolean isPairOf(PairCollisionData contact, GameObject go1, GameObject go2) {
+        return (contact.go1() == go1 && contact.go2() == go2)
+                || (contact.go1() == go2 && contact.go2() == go1);
+    }
+
+    private int hash(GameObject go1, GameObject go2) {
+        int id1 = ids.idOf(go1), id2 = ids.idOf(go2);
+        long key = ((long)Math.min(id1, id2) << 32) | (Math.max(id1, id2) & 0xFFFFFFFFL);
+        key *= 0x9E3779B97F4A7C15L;
+        return (int)(key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,152 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+import java.awt.geom.Rectangle2D;
+import java.util.function.Consumer;
+
+/**
+ * package-private. Continuous collision detection of fast moving objects
+ * (see {@link danogl.components.GameObjectPhysics#setFastMover(boolean)}).
+ * The bounds of a fast mover are swept along the motion of its last update,
+ * and tested against the bounds of the objects it may collide with, at their current positions.
+ * If the mover would have passed through the first object it hits, it is moved back
+ * to slightly past the time of impact, so that the usual collision detection finds the collision.
+ * A mover which already intersects an object at the start of its motion, and heads into it,
+ * is considered to hit it at the start.
+ * @author Dan Nirel
+ */
+class ContinuousCollisions {
+    //how far past the point of impact a mover is placed, so that it intersects what it hit
+    private static final float PENETRATION = 0.5f;
+
+    private final LayerManager layerManager;
+    private final Consumer<GameObject> hitTester = this::testHit;
+    private final Rectangle2D.Float endBounds = new Rectangle2D.Float();
+    private final Rectangle2D.Float startBounds = new Rectangle2D.Float();
+    private final Rectangle2D.Float sweptBounds = new Rectangle2D.Float();
+    private final Rectangle2D.Float otherBounds = new Rectangle2D.Float();
+    private final Rectangle2D.Float firstHitBounds = new Rectangle2D.Float();
+
+    private GameObject mover;
+    private float dx, dy;
+    private float firstHitTime;
+    private GameObject firstHit;
+
+    ContinuousCollisions(LayerManager layerManager) {
+        this.layerManager = layerManager;
+    }
+
+    /**
+     * Sweeps a fast mover along the motion of its last update, and if it would have passed
+     * through an object, moves it back to the point of impact.
+     * @return whether the object was moved back
+     */
+    boolean sweep(GameObject go) {
+        var displacement = go.transform().getLastDisplacement();
+        dx = displacement.x();
+        dy = displacement.y();
+        if(dx == 0 && dy == 0)
+            return false;
+        Broadphase.worldBounds(go, endBounds);
+        startBounds.setRect(endBounds.x - dx, endBounds.y - dy, endBounds.width, endBounds.height);
+        Rectangle2D.union(startBounds, endBounds, sweptBounds);
+
+        mover = go;
+        firstHit = null;
+        firstHitTime = Float.POSITIVE_INFINITY;
+        layerManager.forEachObjectCollidingWith(go, sweptBounds, hitTester);
+        mover = null;
+        //if the mover ends up intersecting what it hits first, it didn't pass through it
+        if(firstHit == null || overlap(endBounds, firstHitBounds))
+            return false;
+        firstHit = null;
+
+        float time = Math.min(1, firstHitTime + PENETRATION / (float)Math.sqrt(dx*dx + dy*dy));
+        var corner = go.getTopLeftCorner();
+        go.transform().setTopLeftCorner(corner.x() - (1 - time)*dx, corner.y() - (1 - time)*dy);
+        return true;
+    }
+
+    private void testHit(GameObject other) {
+        if(other == mover || !mover.shouldCollideWith(other) || !other.shouldCollideWith(mover)
+                || mover.getCoordinateSpace() != other.getCoordinateSpace())
+            return;
+        Broadphase.worldBounds(other, otherBounds);
+        float time;
+        if(overlap(startBounds, otherBounds)) {
+            //already intersecting (e.g. after bouncing off it, while the velocity change is
+            //yet to apply); it can only be passed through by heading into it
+            if(isMovingAwayFrom(otherBounds))
+                return;
+            time = 0;
+        }
+        else {
+            time = timeOfImpact();
+        }
+        if(time < firstHitTime) {
+            firstHitTime = time;
+            firstHit = other;
+            firstHitBounds.setRect(otherBounds);
+        }
+    }
+
+    private boolean isMovingAwayFrom(Rectangle2D.Float rect) {
+        float fromCenterX = (float)(startBounds.getCenterX() - rect.getCenterX());
+        float fromCenterY = (float)(startBounds.getCenterY() - rect.getCenterY());
+        return fromCenterX*dx + fromCenterY*dy >= 0;
+    }
+
+    /**
+     * The fraction of the motion at which the swept start bounds first overlap otherBounds.
+     * @return the time, between 0 and 1, or infinity if they don't overlap during the motion.
+     */
+    private float timeOfImpact() {
+        float enterX, exitX, enterY, exitY;
+        if(dx != 0) {
+            float toNear = dx > 0 ? otherBounds.x - (startBounds.x + startBounds.width)
+                    : (otherBounds.x + otherBounds.width) - startBounds.x;
+            float toFar = dx > 0 ? (otherBounds.x + otherBounds.width) - startBounds.x
+                    : otherBounds.x - (startBounds.x + startBounds.width);
+            enterX = toNear / dx;
+            exitX = toFar / dx;
+        }
+        else if(overlapX(startBounds, otherBounds)) {
+            enterX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        }
+        else {
+            return Float.POSITIVE_INFINITY;
+        }
+        if(dy != 0) {
+            float toNear = dy > 0 ? otherBounds.y - (startBounds.y + startBounds.height)
+                    : (otherBounds.y + otherBounds.height) - startBounds.y;
+            float toFar = dy > 0 ? (otherBounds.y + otherBounds.height) - startBounds.y
+                    : otherBounds.y - (startBounds.y + startBounds.height);
+            enterY = toNear / dy;
+            exitY = toFar / dy;
+        }
+        else if(overlapY(startBounds, otherBounds)) {
+            enterY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        }
+        else {
+            return Float.POSITIVE_INFINITY;
+        }
+        float enter = Math.max(0, Math.max(enterX, enterY));
+        float exit = Math.min(exitX, exitY);
+        return enter < exit && enter <= 1 ? enter : Float.POSITIVE_INFINITY;
+    }
+
+    private static boolean overlap(Rectangle2D.Float rect1, Rectangle2D.Float rect2) {
+        return overlapX(rect1, rect2) && overlapY(rect1, rect2);
+    }
+
+    private static boolean overlapX(Rectangle2D.Float rect1, Rectangle2D.Float rect2) {
+        return rect1.x < rect2.x + rect2.width && rect2.x < rect1.x + rect1.width;
+    }
+
+    private static boolean overlapY(Rectangle2D.Float rect1, Rectangle2D.Float rect2) {
+        return rect1.y < rect2.y + rect2.height && rect2.y < rect1.y + rect1.height;
+    }
+}
@@ -0,0 +1,97 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * package-private. The objects of a collection whose transform changed since the list
+ * was last cleared (see {@link danogl.components.Transform#isDirty()}), in no particular
+ * order. Objects are also listed when they join the collection.
+ * An object is listed at most once; objects are indexed by their slot.
+ * @author Dan Nirel
+ */
+class DirtyObjects {
+    private static final int NOT_LISTED = -1;
+
+    private GameObject[] objects = new GameObject[64];
+    //the slot of every listed object
+    private int[] slots = new int[64];
+    private int count = 0;
+    //the position in objects of the object of every slot, or NOT_LISTED
+    private int[] positions = new int[64];
+    //the callback added to the transform of the object of every slot
+    private Runnable[] listeners = new Runnable[64];
+
+    DirtyObjects() {
+        Arrays.fill(positions, NOT_LISTED);
+    }
+
+    /**
+     * Starts listing the object whenever its transform becomes dirty.
+     * The object is listed right away. Should be invoked once its slot was assigned.
+     */
+    void track(GameObject go, int slot) {
+        if(slot >= listeners.length)
+            listeners = Arrays.copyOf(listeners, Math.max(slot + 1, 2*listeners.length));
+        Runnable listener = () -> add(go, slot);
+        listeners[slot] = listener;
+        go.transform().addOnBecameDirty(listener);
+        add(go, slot);
+    }
+
+    /**
+     * Stops tracking the object and removes it from the list.
+     * Should be invoked while it still has its slot.
+     */
+    void untrack(GameObject go, int slot) {
+        go.transform().removeOnBecameDirty(listeners[slot]);
+        listeners[slot] = null;
+        if(slot >= positions.length || positions[slot] == NOT_LISTED)
+            return;
+        int position = positions[slot];
+        count--;
+        objects[position] = objects[count];
+        slots[position] = slots[count];
+        positions[slots[position]] = position;
+        objects[count] = null;
+        positions[slot] = NOT_LISTED;
+    }
+
+    private void add(GameObject go, int slot) {
+        if(slot >= positions.length) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(slot + 1, 2*oldLength));
+            Arrays.fill(positions, oldLength, positions.length, NOT_LISTED);
+        }
+        if(positions[slot] != NOT_LISTED)
+            return;
+        if(count == objects.length) {
+            objects = Arrays.copyOf(objects, 2*count);
+            slots = Arrays.copyOf(slots, 2*count);
+        }
+        positions[slot] = count;
+        slots[count] = slot;
+        objects[count++] = go;
+    }
+
+    int size() {
+        return count;
+    }
+
+    GameObject get(int index) {
+        return objects[index];
+    }
+
+    /**
+     * Empties the list and clears the dirty flags of the listed objects.
+     */
+    void clear() {
+        for(int i = 0 ; i < count ; i++) {
+            positions[slots[i]] = NOT_LISTED;
+            objects[i].transform().clearDirty();
+            objects[i] = null;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,507 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * A dynamic bounding-volume hierarchy of GameObjects: a balanced binary tree whose leaves are
+ * the objects' bounds (see {@link Broadphase#worldBounds(GameObject, Rectangle2D.Float)}) and whose
+ * inner nodes bound their children. Supports querying which objects overlap a region and
+ * casting rays, both in logarithmic time in the typical case.
+ * Leaves are "fattened" by a margin, so an object that moves a little stays within its leaf
+ * and the tree need not change; only objects that leave their fattened bounds are re-inserted.
+ * The tree is not updated automatically: call {@link #update(GameObject)} (or
+ * {@link #update(int)}) after objects move.
+ * @author Dan Nirel
+ */
+public class DynamicAABBTree {
+    /** The margin by which the bounds of the leaves are extended, in world units */
+    public static final float FAT_MARGIN = 8;
+
+    private static final int NULL_NODE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+    private final Map<GameObject, Integer> proxies = new IdentityHashMap<>();
+
+    //nodes, by index. The bounds of node i are minX, minY, maxX, maxY at 4*i to 4*i+3,
+    //and are fattened for leaves.
+    private float[] fatBounds;
+    //the actual bounds of the objects of leaves, in the same layout
+    private float[] tightBounds;
+    private int[] parents, children1, children2, heights;
+    private GameObject[] objects;
+    private int[] userData;
+    private int[] syncStamps;
+    private int currentSyncStamp = 0;
+    private int root = NULL_NODE;
+    private int freeList = NULL_NODE;
+    private int[] stack = new int[64];
+
+    /**
+     * Construct an empty tree.
+     */
+    public DynamicAABBTree() {
+        allocateNodes(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Inserts an object into the tree according to its current bounds.
+     * @return the proxy of the object: a handle for faster access
+     * @throws IllegalArgumentException if the object was already inserted
+     */
+    public int insert(GameObject go) {
+        if(proxies.containsKey(go))
+            throw new IllegalArgumentException("Object is already in the tree");
+        int leaf = allocateNode();
+        objects[leaf] = go;
+        userData[leaf] = 0;
+        heights[leaf] = 0;
+        setLeafBounds(leaf);
+        insertLeaf(leaf);
+        proxies.put(go, leaf);
+        return leaf;
+    }
+
+    /**
+     * Removes an object from the tree.
+     * @return false if the object was not in the tree.
+     */
+    public boolean remove(GameObject go) {
+        Integer proxy = proxies.remove(go);
+        if(proxy == null)
+            return false;
+        removeLeaf(proxy);
+        freeNode(proxy);
+        return true;
+    }
+
+    /**
+     * Returns whether the object was inserted into the tree.
+     */
+    public boolean contains(GameObject go) {
+        return proxies.containsKey(go);
+    }
+
+    /**
+     * Returns the proxy of an object in the tree.
+     * @throws IllegalArgumentException if the object is not in the tree
+     */
+    public int proxyOf(GameObject go) {
+        Integer proxy = proxies.get(go);
+        if(proxy == null)
+            throw new IllegalArgumentException("Object is not in the tree");
+        return proxy;
+    }
+
+    /**
+     * Refits an object's leaf to its current bounds. If the object moved outside its
+     * fattened bounds, it is re-inserted into the tree.
+     * @return whether the object was re-inserted
+     * @throws IllegalArgumentException if the object is not in the tree
+     */
+    public boolean update(GameObject go) {
+        return update(proxyOf(go));
+    }
+
+    /**
+     * Refits a leaf to the current bounds of its object. If the object moved outside its
+     * fattened bounds, it is re-inserted into the tree.
+     * @param proxy the proxy returned by {@link #insert(GameObject)}
+     * @return whether the object was re-inserted
+     */
+    public boolean update(int proxy) {
+        setTightBounds(proxy);
+        int i = 4*proxy;
+        if(fatBounds[i] <= tightBounds[i] && fatBounds[i+1] <= tightBounds[i+1]
+                && tightBounds[i+2] <= fatBounds[i+2] && tightBounds[i+3] <= fatBounds[i+3])
+            return false;
+        removeLeaf(proxy);
+        setLeafBounds(proxy);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    /**
+     * Makes the tree contain exactly the given objects: refits the objects already in the tree,
+     * inserts the new ones and removes the rest. The user data of each object's proxy
+     * is set to its position in the iteration.
+     */
+    public void synchronize(Iterable<GameObject> gameObjects) {
+        if(currentSyncStamp == Integer.MAX_VALUE) {
+            Arrays.fill(syncStamps, 0);
+            currentSyncStamp = 0;
+        }
+        currentSyncStamp++;
+        int position = 0;
+        for(var go : gameObjects) {
+            Integer proxy = proxies.get(go);
+            int leaf = proxy == null ? insert(go) : proxy;
+            if(proxy != null)
+                update(leaf);
+            userData[leaf] = position++;
+            syncStamps[leaf] = currentSyncStamp;
+        }
+        if(position == proxies.size())
+            return;
+        for(int node = 0 ; node < objects.length ; node++) {
+            if(objects[node] != null && syncStamps[node] != currentSyncStamp)
+                remove(objects[node]);
+        }
+    }
+
+    /**
+     * Returns the object of a proxy.
+     */
+    public GameObject objectOf(int proxy) {
+        return objects[proxy];
+    }
+
+    /**
+     * Returns the integer attached to a proxy (0 by default).
+     */
+    public int getUserData(int proxy) {
+        return userData[proxy];
+    }
+
+    /**
+     * Attaches an integer to a proxy, for the use of the tree's user.
+     */
+    public void setUserData(int proxy, int data) {
+        userData[proxy] = data;
+    }
+
+    /**
+     * Returns the number of objects in the tree.
+     */
+    public int size() {
+        return proxies.size();
+    }
+
+    /**
+     * Calls the consumer with every object whose bounds overlap the given region.
+     * The tree should not be modified by the consumer.
+     * @param region a rectangle in world coordinates
+     */
+    public void queryRegion(Rectangle2D region, Consumer<GameObject> consumer) {
+        query((float)region.getMinX(), (float)region.getMinY(),
+                (float)region.getMaxX(), (float)region.getMaxY(),
+                proxy -> consumer.accept(objects[proxy]));
+    }
+
+    /**
+     * Calls the consumer with the proxy of every object whose bounds overlap the given rectangle.
+     * The tree should not be modified by the consumer.
+     */
+    public void query(float qMinX, float qMinY, float qMaxX, float qMaxY, IntConsumer proxyConsumer) {
+        if(root == NULL_NODE)
+            return;
+        int stackSize = 0;
+        stack[stackSize++] = root;
+        while(stackSize > 0) {
+            int node = stack[--stackSize];
+            int i = 4*node;
+            if(fatBounds[i] > qMaxX || qMinX > fatBounds[i+2] || fatBounds[i+1] > qMaxY || qMinY > fatBounds[i+3])
+                continue;
+            if(isLeaf(node)) {
+                if(tightBounds[i] <= qMaxX && qMinX <= tightBounds[i+2]
+                        && tightBounds[i+1] <= qMaxY && qMinY <= tightBounds[i+3])
+                    proxyConsumer.accept(node);
+                continue;
+            }
+            if(stackSize + 2 > stack.length)
+                stack = Arrays.copyOf(stack, 2*stack.length);
+            stack[stackSize++] = children1[node];
+            stack[stackSize++] = children2[node];
+        }
+    }
+
+    /**
+     * Casts a ray and returns the first object whose bounds it hits.
+     * @param origin the ray's origin, in world coordinates
+     * @param direction the ray's direction. Need not be normalized.
+     * @param maxDistance the ray's length, in multiples of direction's magnitude
+     * @param filter which objects may be hit. Can be null, in which case all objects may be hit.
+     * @return the nearest object hit, or null if none was hit
+     */
+    public GameObject raycast(Vector2 origin, Vector2 direction, float maxDistance,
+                              Predicate<GameObject> filter) {
+        if(root == NULL_NODE)
+            return null;
+        float originX = origin.x(), originY = origin.y();
+        float invDirX = 1f/direction.x(), invDirY = 1f/direction.y();
+        float nearest = maxDistance;
+        int nearestLeaf = NULL_NODE;
+        int stackSize = 0;
+        stack[stackSize++] = root;
+        while(stackSize > 0) {
+            int node = stack[--stackSize];
+            if(rayEntry(originX, originY, invDirX, invDirY, fatBounds, 4*node) > nearest)
+                continue;
+            if(isLeaf(node)) {
+                float entry = rayEntry(originX, originY, invDirX, invDirY, tightBounds, 4*node);
+                if(entry <= nearest && (filter == null || filter.test(objects[node]))) {
+                    nearest = entry;
+                    nearestLeaf = node;
+                }
+                continue;
+            }
+            if(stackSize + 2 > stack.length)
+                stack = Arrays.copyOf(stack, 2*stack.length);
+            stack[stackSize++] = children1[node];
+            stack[stackSize++] = children2[node];
+        }
+        return nearestLeaf == NULL_NODE ? null : objects[nearestLeaf];
+    }
+
+    /**
+     * The parameter at which a ray enters a rectangle (0 if it starts inside it),
+     * or positive infinity if it misses it or the rectangle is behind the ray.
+     * @param i the index of the rectangle's minX in rects
+     */
+    private static float rayEntry(float originX, float originY, float invDirX, float invDirY,
+                                  float[] rects, int i) {
+        float t1 = (rects[i] - originX)*invDirX, t2 = (rects[i+2] - originX)*invDirX;
+        float t3 = (rects[i+1] - originY)*invDirY, t4 = (rects[i+3] - originY)*invDirY;
+        //a zero direction on an axis yields NaN when the origin is on the slab's edge
+        if(Float.isNaN(t1) || Float.isNaN(t2)) { t1 = Float.NEGATIVE_INFINITY; t2 = Float.POSITIVE_INFINITY; }
+        if(Float.isNaN(t3) || Float.isNaN(t4)) { t3 = Float.NEGATIVE_INFINITY; t4 = Float.POSITIVE_INFINITY; }
+        float entry = Math.max(Math.min(t1, t2), Math.min(t3, t4));
+        float exit = Math.min(Math.max(t1, t2), Math.max(t3, t4));
+        if(exit < 0 || entry > exit)
+            return Float.POSITIVE_INFINITY;
+        return Math.max(entry, 0);
+    }
+
+    private boolean isLeaf(int node) {
+        return children1[node] == NULL_NODE;
+    }
+
+    private void setTightBounds(int leaf) {
+        Broadphase.worldBounds(objects[leaf], bounds);
+        int i = 4*leaf;
+        tightBounds[i] = bounds.x;
+        tightBounds[i+1] = bounds.y;
+        tightBounds[i+2] = bounds.x + bounds.width;
+        tightBounds[i+3] = bounds.y + bounds.height;
+    }
+
+    private void setLeafBounds(int leaf) {
+        setTightBounds(leaf);
+        int i = 4*leaf;
+        fatBounds[i] = tightBounds[i] - FAT_MARGIN;
+        fatBounds[i+1] = tightBounds[i+1] - FAT_MARGIN;
+        fatBounds[i+2] = tightBounds[i+2] + FAT_MARGIN;
+        fatBounds[i+3] = tightBounds[i+3] + FAT_MARGIN;
+    }
+
+    private void insertLeaf(int leaf) {
+        if(root == NULL_NODE) {
+            root = leaf;
+            parents[root] = NULL_NODE;
+            return;
+        }
+
+        //find the best sibling, descending by the cheapest perimeter increase
+        int index = root;
+        while(!isLeaf(index)) {
+            int child1 = children1[index], child2 = children2[index];
+            float perimeter = perimeter(index);
+            float combinedPerimeter = combinedPerimeter(index, leaf);
+            float cost = 2*combinedPerimeter;
+            float inheritanceCost = 2*(combinedPerimeter - perimeter);
+            float cost1 = descendCost(child1, leaf) + inheritanceCost;
+            float cost2 = descendCost(child2, leaf) + inheritanceCost;
+            if(cost < cost1 && cost < cost2)
+                break;
+            index = cost1 < cost2 ? child1 : child2;
+        }
+        int sibling = index;
+
+        //create a new parent for the leaf and its sibling
+        int oldParent = parents[sibling];
+        int newParent = allocateNode();
+        parents[newParent] = oldParent;
+        objects[newParent] = null;
+        setCombinedBounds(newParent, leaf, sibling);
+        heights[newParent] = heights[sibling] + 1;
+        children1[newParent] = sibling;
+        children2[newParent] = leaf;
+        parents[sibling] = newParent;
+        parents[leaf] = newParent;
+        if(oldParent == NULL_NODE) {
+            root = newParent;
+        }
+        else if(children1[oldParent] == sibling) {
+            children1[oldParent] = newParent;
+        }
+        else {
+            children2[oldParent] = newParent;
+        }
+
+        refitAncestors(parents[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if(leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+        int parent = parents[leaf];
+        int grandParent = parents[parent];
+        int sibling = children1[parent] == leaf ? children2[parent] : children1[parent];
+        if(grandParent == NULL_NODE) {
+            root = sibling;
+            parents[sibling] = NULL_NODE;
+            freeNode(parent);
+            return;
+        }
+        if(children1[grandParent] == parent)
+            children1[grandParent] = sibling;
+        else
+            children2[grandParent] = sibling;
+        parents[sibling] = grandParent;
+        freeNode(parent);
+        refitAncestors(grandParent);
+    }
+
+    private void refitAncestors(int index) {
+        while(index != NULL_NODE) {
+            index = balance(index);
+            int child1 = children1[index], child2 = children2[index];
+            heights[index] = 1 + Math.max(heights[child1], heights[child2]);
+            setCombinedBounds(index, child1, child2);
+            index = parents[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the subtree of node a is imbalanced.
+     * @return the new root of the subtree
+     */
+    private int balance(int a) {
+        if(isLeaf(a) || heights[a] < 2)
+            return a;
+        int b = children1[a], c = children2[a];
+        int balance = heights[c] - heights[b];
+        if(balance > 1)
+            return rotate(a, c, b, true);
+        if(balance < -1)
+            return rotate(a, b, c, false);
+        return a;
+    }
+
+    /**
+     * Rotates the higher child of a up.
+     * @param higher the higher child of a, which becomes the subtree's root
+     * @param lower the other child of a
+     * @param isHigherChild2 whether higher is children2 of a
+     */
+    private int rotate(int a, int higher, int lower, boolean isHigherChild2) {
+        int f = children1[higher], g = children2[higher];
+
+        children1[higher] = a;
+        parents[higher] = parents[a];
+        parents[a] = higher;
+        if(parents[higher] == NULL_NODE)
+            root = higher;
+        else if(children1[parents[higher]] == a)
+            children1[parents[higher]] = higher;
+        else
+            children2[parents[higher]] = higher;
+
+        //keep the higher grandchild under the new root, move the other one under a
+        int keep = heights[f] > heights[g] ? f : g;
+        int move = keep == f ? g : f;
+        children2[higher] = keep;
+        if(isHigherChild2)
+            children2[a] = move;
+        else
+            children1[a] = move;
+        parents[move] = a;
+        setCombinedBounds(a, lower, move);
+        setCombinedBounds(higher, a, keep);
+        heights[a] = 1 + Math.max(heights[lower], heights[move]);
+        heights[higher] = 1 + Math.max(heights[a], heights[keep]);
+        return higher;
+    }
+
+    private float descendCost(int child, int leaf) {
+        if(isLeaf(child))
+            return combinedPerimeter(child, leaf);
+        return combinedPerimeter(child, leaf) - perimeter(child);
+    }
+
+    private float perimeter(int node) {
+        int i = 4*node;
+        return 2*(fatBounds[i+2] - fatBounds[i] + fatBounds[i+3] - fatBounds[i+1]);
+    }
+
+    private float combinedPerimeter(int node1, int node2) {
+        int i = 4*node1, j = 4*node2;
+        return 2*(Math.max(fatBounds[i+2], fatBounds[j+2]) - Math.min(fatBounds[i], fatBounds[j])
+                + Math.max(fatBounds[i+3], fatBounds[j+3]) - Math.min(fatBounds[i+1], fatBounds[j+1]));
+    }
+
+    private void setCombinedBounds(int node, int child1, int child2) {
+        int i = 4*node, i1 = 4*child1, i2 = 4*child2;
+        fatBounds[i] = Math.min(fatBounds[i1], fatBounds[i2]);
+        fatBounds[i+1] = Math.min(fatBounds[i1+1], fatBounds[i2+1]);
+        fatBounds[i+2] = Math.max(fatBounds[i1+2], fatBounds[i2+2]);
+        fatBounds[i+3] = Math.max(fatBounds[i1+3], fatBounds[i2+3]);
+    }
+
+    private int allocateNode() {
+        if(freeList == NULL_NODE) {
+            int capacity = parents.length;
+            allocateNodes(2*capacity);
+            for(int i = capacity ; i < 2*capacity ; i++)
+                freeNode(i);
+        }
+        int node = freeList;
+        freeList = parents[node];
+        parents[node] = NULL_NODE;
+        children1[node] = NULL_NODE;
+        children2[node] = NULL_NODE;
+        heights[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        objects[node] = null;
+        heights[node] = -1;
+        parents[node] = freeList;
+        freeList = node;
+    }
+
+    private void allocateNodes(int capacity) {
+        int oldCapacity = parents == null ? 0 : parents.length;
+        if(oldCapacity == 0) {
+            fatBounds = new float[4*capacity];
+            tightBounds = new float[4*capacity];
+            parents = new int[capacity]; children1 = new int[capacity];
+            children2 = new int[capacity]; heights = new int[capacity];
+            objects = new GameObject[capacity];
+            userData = new int[capacity];
+            syncStamps = new int[capacity];
+            for(int i = capacity-1 ; i >= 0 ; i--)
+                freeNode(i);
+            return;
+        }
+        fatBounds = Arrays.copyOf(fatBounds, 4*capacity);
+        tightBounds = Arrays.copyOf(tightBounds, 4*capacity);
+        parents = Arrays.copyOf(parents, capacity); children1 = Arrays.copyOf(children1, capacity);
+        children2 = Arrays.copyOf(children2, capacity); heights = Arrays.copyOf(heights, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+        userData = Arrays.copyOf(userData, capacity);
+        syncStamps = Arrays.copyOf(syncStamps, capacity);
+    }
+}
@@ -0,0 +1,95 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * A broadphase which keeps the objects of one layer in a {@link DynamicAABBTree},
+ * and checks every object of the other layer only against the objects of the tree
+ * whose bounds overlap its own.
+ * The tree is updated incrementally: an object is only re-inserted after it leaves
+ * its fattened bounds. Unlike a grid, the tree adapts to objects of very different sizes
+ * and to objects spread unevenly across the world.
+ * @author Dan Nirel
+ */
+public class DynamicAABBTreeBroadphase implements Broadphase {
+    private final DynamicAABBTree tree = new DynamicAABBTree();
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+    private final IntConsumer candidateCollector = this::collectCandidate;
+
+    //the objects of the tree and their proxies, in the order of their layer
+    private GameObject[] members = new GameObject[0];
+    private int[] memberProxies = new int[0];
+    private int memberCount = 0;
+
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private int minIndexExclusive;
+
+    @Override
+    public void findPairs(ModifiableList<GameObject> layerObjs1,
+                          ModifiableList<GameObject> layerObjs2,
+                          BiConsumer<GameObject, GameObject> pairHandler) {
+        if(layerObjs1.size() == 0 || layerObjs2.size() == 0)
+            return;
+        synchronize(layerObjs2);
+        boolean sameLayer = layerObjs1 == layerObjs2;
+        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
+            var go1 = layerObjs1.get(ind1);
+            Broadphase.worldBounds(go1, bounds);
+            candidateCount = 0;
+            minIndexExclusive = sameLayer ? ind1 : -1;
+            tree.query(bounds.x, bounds.y, bounds.x+bounds.width, bounds.y+bounds.height,
+                    candidateCollector);
+            Arrays.sort(candidates, 0, candidateCount);
+            for(int i = 0 ; i < candidateCount ; i++) {
+                var go2 = layerObjs2.get(candidates[i]);
+                if(go1 != go2)
+                    pairHandler.accept(go1, go2);
+            }
+        }
+    }
+
+    private void collectCandidate(int proxy) {
+        int ind = tree.getUserData(proxy);
+        if(ind <= minIndexExclusive)
+            return;
+        if(candidateCount == candidates.length)
+            candidates = Arrays.copyOf(candidates, 2*candidates.length);
+        candidates[candidateCount++] = ind;
+    }
+
+    /**
+     * Makes the tree contain the objects of the layer, with their index in the layer
+     * as the user data of their proxies.
+     */
+    private void synchronize(ModifiableList<GameObject> objects) {
+        int size = objects.size();
+        boolean isSameMembers = size == memberCount;
+        for(int i = 0 ; isSameMembers && i < size ; i++)
+            isSameMembers = members[i] == objects.get(i);
+        if(isSameMembers) {
+            for(int i = 0 ; i < size ; i++)
+                tree.update(memberProxies[i]);
+            return;
+        }
+
+        tree.synchronize(objects);
+        if(members.length < size) {
+            int capacity = Math.max(size, 2*members.length);
+            members = new GameObject[capacity];
+            memberProxies = new int[capacity];
+        }
+        Arrays.fill(members, size, members.length, null);
+        for(int i = 0 ; i < size ; i++) {
+            members[i] = objects.get(i);
+            memberProxies[i] = tree.proxyOf(members[i]);
+        }
+        memberCount = size;
+    }
+}
@@ -1,8 +1,17 @@
 package danogl.collisions;
 
 import danogl.GameObject;
+import danogl.components.TransformStore;
+import danogl.jfr.CollisionPassEvent;
+import danogl.util.Vector2;
+
+import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A container for accumulating/removing instances of GameObject and
@@ -12,12 +21,27 @@ import java.util.List;
  * @author Dan Nirel
  */
 public class GameObjectCollection implements Iterable<GameObject> {
+    /** The id and slot of an object which is not in the collection */
+    public static final int NO_ID = -1;
+
     protected CollisionResolver resolver = new CollisionResolver();
-    protected LayerManager layerManager = new LayerManager(this::handlePair);
+    protected LayerManager layerManager = new LayerManager(this::onCandidatePair, this::forgetContactsOf);
     private PairCollisionManager pairCollisionManager = new PairCollisionManager();
-    private Map<GameObjectPair, PairCollisionData> alreadyInCollision
-            = new HashMap<>();
+    private ContactTable alreadyInCollision = new ContactTable(layerManager.ids());
+    private ContactLists contacts = new ContactLists(layerManager.ids());
+    private ContinuousCollisions continuousCollisions = new ContinuousCollisions(layerManager);
+    private Consumer<PairCollisionData> forgetCollision = alreadyInCollision::remove;
     private GameObjectPair pair = new GameObjectPair();
+    private List<PairCollisionData> unhandledCollisions = new ArrayList<>();
+    private int collisionPass = 0;
+    //counted during every pass, for CollisionPassEvent
+    private int passCandidatePairs, passEnters, passExits;
+    private DynamicAABBTree spatialIndex = null;
+    //whether objects were added or removed since the spatial index was synchronized;
+    //otherwise only the dirty objects may be outdated in the index
+    private boolean isSpatialIndexStale = true;
+    //null unless the narrowphase is parallel
+    private ParallelNarrowphase parallelNarrowphase = null;
 
     /**
      * Iterator for all the objects in all layers, in drawing order.
@@ -35,12 +59,29 @@ public class GameObjectCollection implements Iterable<GameObject> {
      */
     public Iterable<GameObject> reverseOrder() { return layerManager.reverseOrder(); }
 
+    /**
+     * Returns the number of objects in this collection, of all layers.
+     * Together with {@link #objectAt(int)}, allows traversing the objects without allocating:
+     * for(int i = 0 ; i < objectCount() ; i++) {...}
+     * (or in reverse, from objectCount()-1 down to 0).
+     * As with iteration, objects added or removed since the last update are not reflected.
+     */
+    public int objectCount() { return layerManager.objectCount(); }
+
+    /**
+     * Returns the object in a given index of the drawing order, of all layers.
+     * @see #objectCount()
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public GameObject objectAt(int index) { return layerManager.objectAt(index); }
+
     /**
      * Add the specified GameObject.
      * Important note: the object will only be added at the end of
      * the nearest invocation of handleCollisions. Until such time,
      * traversal of the objects in this container using the foreach loop will not
-     * show this object.
+     * show this object. This is also when the object is assigned its id and slot
+     * (see {@link #idOf(GameObject)}).
      * Also note that objects are rendered in the order they are added. Thus,
      * the last object added will always be in the foreground.
      * @param obj The GameObject to add.
@@ -71,15 +112,8 @@ public class GameObjectCollection implements Iterable<GameObject> {
      */
     public boolean removeGameObject(GameObject obj, int layerId) {
         boolean wasAnObjRemoved = layerManager.removeGameObject(obj, layerId);
-        if(wasAnObjRemoved) {
-            List<GameObjectPair> keysToRemove = new ArrayList<>();
-            for(var pair : alreadyInCollision.keySet()) {
-                if(pair.getGameObject(0) == obj
-                        || pair.getGameObject(1) == obj)
-                    keysToRemove.add(pair);
-            }
-            keysToRemove.forEach(alreadyInCollision::remove);
-        }
+        if(wasAnObjRemoved)
+            forgetContactsOf(obj);
         return wasAnObjRemoved;
     }
 
@@ -91,6 +125,72 @@ public class GameObjectCollection implements Iterable<GameObject> {
         return removeGameObject(obj, Layer.DEFAULT);
     }
 
+    /**
+     * Gets the id of an object: a unique number assigned by the collection
+     * once the addition of the object takes effect. Ids are never reused.
+     * An object in several collections has a separate id in each.
+     * @return the id, or {@link #NO_ID} if the object is not in the collection.
+     */
+    public int idOf(GameObject obj) {
+        return layerManager.ids().idOf(obj);
+    }
+
+    /**
+     * Gets the slot of an object: a small number assigned by the collection once
+     * the addition of the object takes effect. No two objects of the collection share a slot,
+     * but the slot of a removed object is reused by objects added later.
+     * Thus slots are suitable as indices of arrays holding per-object data.
+     * An object in several collections has a separate slot in each.
+     * @return the slot, or {@link #NO_ID} if the object is not in the collection.
+     */
+    public int slotOf(GameObject obj) {
+        return layerManager.ids().slotOf(obj);
+    }
+
+    /**
+     * Returns the object occupying a slot (see {@link #slotOf(GameObject)}).
+     * @return the object, or null if no object of this collection currently has that slot
+     */
+    public GameObject objectAtSlot(int slot) {
+        return layerManager.ids().objectAt(slot);
+    }
+
+    /**
+     * Returns an upper bound on the slots of the objects in this collection (see
+     * {@link #slotOf(GameObject)}): arrays of this length can be indexed by slot.
+     */
+    public int slotCount() {
+        return layerManager.ids().slotCount();
+    }
+
+    /**
+     * Returns the number of objects whose position or dimensions changed, or which were added,
+     * since the last invocation of {@link #clearDirtyObjects()}
+     * (see {@link danogl.components.Transform#isDirty()}).
+     * Together with {@link #dirtyObjectAt(int)}, allows processing only the objects that changed.
+     * Objects which were removed from the collection are no longer counted.
+     */
+    public int dirtyObjectCount() { return layerManager.ids().dirtyObjects().size(); }
+
+    /**
+     * Returns a dirty object, in no particular order.
+     * @see #dirtyObjectCount()
+     */
+    public GameObject dirtyObjectAt(int index) { return layerManager.ids().dirtyObjects().get(index); }
+
+    /**
+     * Clears the dirty flags of the objects of the collection, and empties the list
+     * of dirty objects. Normally invoked by GameManager at the start of every frame.
+     */
+    public void clearDirtyObjects() {
+        if(spatialIndex != null && !isSpatialIndexStale)
+            refitSpatialIndex();
+        //objects moved after the last collision pass (e.g. in its callbacks) are not dirty anymore
+        //by the next one
+        layerManager.refitStaticLayers(layerManager.ids().dirtyObjects());
+        layerManager.ids().dirtyObjects().clear();
+    }
+
     /**
      * Register another implementation of PairCollisionHandler, which creates
      * the collision data of two objects implementing {@link Collider}.
@@ -101,12 +201,45 @@ public class GameObjectCollection implements Iterable<GameObject> {
             pairCollisionManager.registerSinglePairCollisionHandler(pairCollisionHandler);
     }
 
+    /**
+     * Sets the broadphase of the collision detection, i.e. the strategy for finding
+     * which pairs of objects should be checked for collisions in {@link #handleCollisions()}.
+     * The default is {@link UniformGridBroadphase}; {@link AllPairsBroadphase} checks every pair.
+     * {@link SweepAndPruneBroadphase} and {@link DynamicAABBTreeBroadphase} suit scenes whose
+     * objects are of very different sizes or are spread unevenly.
+     * @param broadphaseFactory creates a new broadphase instance (e.g. UniformGridBroadphase::new).
+     *                          An instance is created for every pair of colliding layers.
+     */
+    public void setBroadphase(Supplier<? extends Broadphase> broadphaseFactory) {
+        layerManager.setBroadphase(broadphaseFactory);
+    }
+
+    /**
+     * Sets whether the candidate pairs found by the broadphase are tested for intersection
+     * in parallel, using the common ForkJoinPool. This pays off when there are thousands
+     * of candidate pairs each frame, and spare cores.
+     * The collision callbacks and the resolution are still invoked serially, in the order
+     * in which the broadphase reported the pairs, but only for pairs found to intersect
+     * (or which were already in collision); thus {@link GameObject#shouldCollideWith(GameObject)}
+     * is not invoked for pairs which do not intersect.
+     * Since all candidates are found before any is handled, a broadphase which looks objects
+     * up lazily may report slightly different candidates than in the serial mode,
+     * where objects moved by the resolver are looked up at their new position.
+     * Pairs of an object which took part in an earlier collision of the same pass are re-tested,
+     * as the object may have been moved by the resolver or a callback.
+     * By default the narrowphase is serial.
+     */
+    public void setParallelNarrowphase(boolean isParallel) {
+        parallelNarrowphase = isParallel ? new ParallelNarrowphase(ForkJoinPool.commonPool(), layerManager.ids()) : null;
+    }
+
     /**
      * Updates the internal structures of the collection. Does not update the objects themselves.
      * @param deltaTime Time since last frame
      */
     public void update(float deltaTime) {
-        layerManager.flushChanges();
+        if(layerManager.flushChanges())
+            isSpatialIndexStale = true;
     }
 
     /**
@@ -117,15 +250,97 @@ public class GameObjectCollection implements Iterable<GameObject> {
      * For every frame they stay in collision, including the first frame,
      * their onCollisionStay method is invoked.
      * On the first frame after the collision ends, their onCollisionExit method is invoked.
+     * The callbacks are invoked pair by pair, in the order the broadphase finds the pairs.
+     * The exception is a collision which ended because the bounds of the two objects no longer
+     * overlap: the broadphase does not find such a pair, so its onCollisionExit is invoked only
+     * after the callbacks of all the pairs found, rather than in the pair's place in that order.
      * The method additionally executes the pending actions of adding and removing
      * objects via the addGameObject/removeGameObject methods. This occurs after all
      * pair-handling already took place.
      * To alter the broadphase of the collision detection (which pairs should be
-     * checked for collisions), override this method and use the protected method
-     * handlePair.
+     * checked for collisions), use {@link #setBroadphase(Supplier)}, or override this method
+     * and use the protected method handlePair.
+     * Before looking for collisions, fast movers (see
+     * {@link danogl.components.GameObjectPhysics#setFastMover(boolean)}) which would have passed
+     * through an object during their last update are moved back to the point of impact.
      */
     public void handleCollisions() {
+        var event = new CollisionPassEvent();
+        event.begin();
+        collisionPass++;
+        passCandidatePairs = passEnters = passExits = 0;
+        layerManager.refitStaticLayers(layerManager.ids().dirtyObjects());
+        sweepFastMovers();
         layerManager.handleCollisions();
+        if(parallelNarrowphase != null)
+            handleCandidatesInParallel();
+        handleCollisionsMissedByBroadphase();
+        if(event.shouldCommit()) {
+            event.candidatePairs = passCandidatePairs;
+            event.contacts = alreadyInCollision.size();
+            event.enters = passEnters;
+            event.exits = passExits;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the objects, of all layers, whose bounds overlap the given region.
+     * The objects are looked up in a spatial index rather than by checking every object.
+     * The index reflects the current positions of the objects; only the objects which changed
+     * (see {@link #dirtyObjectCount()}) are re-indexed. Objects added or removed are only
+     * reflected after the next invocation of {@link #update(float)}.
+     * @param region a rectangle in world coordinates
+     * @return a new list of the objects found, in no particular order
+     */
+    public List<GameObject> queryRegion(Rectangle2D region) {
+        List<GameObject> result = new ArrayList<>();
+        spatialIndex().queryRegion(region, result::add);
+        return result;
+    }
+
+    /**
+     * Casts a ray and returns the first object, of any layer, whose bounds it hits.
+     * @see #raycast(Vector2, Vector2, float, Predicate)
+     */
+    public GameObject raycast(Vector2 origin, Vector2 direction, float maxDistance) {
+        return raycast(origin, direction, maxDistance, null);
+    }
+
+    /**
+     * Casts a ray and returns the first object, of any layer, whose bounds it hits.
+     * The objects are looked up in a spatial index, as in {@link #queryRegion(Rectangle2D)}.
+     * @param origin the ray's origin, in world coordinates
+     * @param direction the ray's direction. Need not be normalized.
+     * @param maxDistance the ray's length, in multiples of direction's magnitude
+     * @param filter which objects may be hit (e.g., go -> go != shooter). Null for all objects.
+     * @return the nearest object hit, or null if none was hit
+     */
+    public GameObject raycast(Vector2 origin, Vector2 direction, float maxDistance,
+                              Predicate<GameObject> filter) {
+        return spatialIndex().raycast(origin, direction, maxDistance, filter);
+    }
+
+    private DynamicAABBTree spatialIndex() {
+        if(spatialIndex == null)
+            spatialIndex = new DynamicAABBTree();
+        if(isSpatialIndexStale) {
+            spatialIndex.synchronize(this);
+            isSpatialIndexStale = false;
+        }
+        else {
+            refitSpatialIndex();
+        }
+        return spatialIndex;
+    }
+
+    private void refitSpatialIndex() {
+        var dirtyObjects = layerManager.ids().dirtyObjects();
+        for(int i = 0 ; i < dirtyObjects.size() ; i++) {
+            var go = dirtyObjects.get(i);
+            if(spatialIndex.contains(go))
+                spatialIndex.update(go);
+        }
     }
 
     /**
@@ -147,12 +362,54 @@ public class GameObjectCollection implements Iterable<GameObject> {
      */
     public LayerManager layers() { return layerManager; }
 
+    /**
+     * Sets whether the transforms of the objects are kept in a {@link TransformStore}:
+     * parallel arrays of positions, velocities, accelerations and dimensions indexed by
+     * the objects' slots, of which every transform is a view.
+     * The velocities and accelerations of all the objects are then applied together by
+     * {@link #integrateAll(float)}, a single pass over the arrays, rather than by every
+     * object's update. This pays off with thousands of moving objects.
+     * <br>Note that since all objects are moved before any is updated, an update sees
+     * the other objects at their positions of this frame, not of the previous one, and that
+     * objects are moved even if they override update without calling super.update.
+     * Objects not in the collection (e.g. the camera) still move in their own update.
+     * By default the transforms are not kept in a store.
+     */
+    public void setTransformStoreEnabled(boolean isEnabled) {
+        if(isEnabled != isTransformStoreEnabled())
+            layerManager.ids().setTransformStore(isEnabled ? new TransformStore() : null);
+    }
+
+    /**
+     * Are the transforms kept in a store. See {@link #setTransformStoreEnabled(boolean)}
+     */
+    public boolean isTransformStoreEnabled() {
+        return layerManager.ids().transformStore() != null;
+    }
+
+    /**
+     * Applies the velocity and acceleration of all the objects, if their transforms are kept
+     * in a store (see {@link #setTransformStoreEnabled(boolean)}); otherwise does nothing,
+     * as every object does so in its own update.
+     * Invoked by GameManager at the start of every update, before the objects are updated.
+     * @param deltaTime Time since last frame
+     */
+    public void integrateAll(float deltaTime) {
+        var transformStore = layerManager.ids().transformStore();
+        if(transformStore != null)
+            transformStore.integrateAll(deltaTime);
+    }
+
     /**
      * Calls any callbacks required on the objects (if any),
      * and resolves collisions if needed using {@link #resolver}.
      * @return whether the pair collided or not.
      */
     protected boolean handlePair(GameObject obj1, GameObject obj2) {
+        //the contacts are kept by the objects' slots, which a pair passed
+        //by a subclass might not have yet
+        layerManager.ids().assignTemporarily(obj1);
+        layerManager.ids().assignTemporarily(obj2);
         pair.setGameObject(0, obj1);
         pair.setGameObject(1, obj2);
         if(!pair.go1().shouldCollideWith(pair.go2()) ||
@@ -161,15 +418,18 @@ public class GameObjectCollection implements Iterable<GameObject> {
             return false;
         }
         //do they already intersect?
-        var cachedCollisionData = alreadyInCollision.getOrDefault(pair, null);
+        var cachedCollisionData = alreadyInCollision.get(pair.go1(), pair.go2());
         if(cachedCollisionData != null) {
             //then this is not the first time
+            cachedCollisionData.lastHandledPass = collisionPass;
             cachedCollisionData.onFrameStart();
             if(!cachedCollisionData.areColliding()) {
                 //then they did intersect but no longer
+                passExits++;
                 pair.go1().onCollisionExit(pair.go2());
                 pair.go2().onCollisionExit(pair.go1());
-                alreadyInCollision.remove(pair);
+                alreadyInCollision.remove(cachedCollisionData);
+                contacts.unlink(cachedCollisionData);
                 return false;
             }
             //then they still intersect
@@ -185,11 +445,82 @@ public class GameObjectCollection implements Iterable<GameObject> {
         if(null == collisionData)
             return false; //then no collision
         //then colliding for first time
-        alreadyInCollision.put(collisionData, collisionData);
+        passEnters++;
+        collisionData.lastHandledPass = collisionPass;
+        alreadyInCollision.put(collisionData);
+        contacts.link(collisionData);
         pair.go1().onCollisionEnter(pair.go2(), collisionData.getCollision(0));
         pair.go1().onCollisionStay(pair.go2(), collisionData.getCollision(0));
         pair.go2().onCollisionEnter(pair.go1(), collisionData.getCollision(1));
         pair.go2().onCollisionStay(pair.go1(), collisionData.getCollision(1));
         return true;
     }
+
+    private void onCandidatePair(GameObject obj1, GameObject obj2) {
+        passCandidatePairs++;
+        if(parallelNarrowphase != null)
+            parallelNarrowphase.addCandidate(obj1, obj2);
+        else
+            handlePair(obj1, obj2);
+    }
+
+    /**
+     * Tests the buffered candidate pairs in parallel, then handles serially, in order,
+     * the pairs which may be colliding.
+     */
+    private void handleCandidatesInParallel() {
+        var narrowphase = parallelNarrowphase;
+        //the tests read the transforms on several threads, so they must not refresh lazily
+        narrowphase.syncStoredTransforms();
+        narrowphase.testCandidates();
+        for(int i = 0 ; i < narrowphase.candidateCount() ; i++) {
+            var obj1 = narrowphase.object1(i);
+            var obj2 = narrowphase.object2(i);
+            if(narrowphase.isSeparate(i, collisionPass)
+                    && alreadyInCollision.get(obj1, obj2) == null)
+                continue;
+            if(handlePair(obj1, obj2)) {
+                narrowphase.markCollided(obj1, collisionPass);
+                narrowphase.markCollided(obj2, collisionPass);
+            }
+        }
+        narrowphase.clear();
+    }
+
+    /**
+     * Only objects which moved can be fast movers that passed through something,
+     * so only the dirty objects are checked.
+     */
+    private void sweepFastMovers() {
+        var dirtyObjects = layerManager.ids().dirtyObjects();
+        for(int i = 0 ; i < dirtyObjects.size() ; i++) {
+            var go = dirtyObjects.get(i);
+            if(go.physics().isFastMover())
+                continuousCollisions.sweep(go);
+        }
+    }
+
+    private void forgetContactsOf(GameObject obj) {
+        contacts.unlinkAllOf(obj, forgetCollision);
+    }
+
+    /**
+     * The broadphase only reports pairs whose bounds overlap, so a pair that stopped
+     * colliding might not have been handled. Handle those pairs so they are notified
+     * of the collision's end.
+     */
+    private void handleCollisionsMissedByBroadphase() {
+        for(int slot = 0 ; slot < alreadyInCollision.capacity() ; slot++) {
+            var collisionData = alreadyInCollision.contactAt(slot);
+            if(collisionData != null && collisionData.lastHandledPass != collisionPass)
+                unhandledCollisions.add(collisionData);
+        }
+        passCandidatePairs += unhandledCollisions.size();
+        for(var collisionData : unhandledCollisions) {
+            collisionData.onFrameStart();
+            if(!collisionData.areColliding())
+                handlePair(collisionData.go1(), collisionData.go2());
+        }
+        unhandledCollisions.clear();
+    }
 }
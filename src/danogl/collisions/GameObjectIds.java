@@ -0,0 +1,187 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.components.TransformStore;
+import danogl.util.IdentityIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * package-private. Assigns the ids and slots of the objects of a collection
+ * (see {@link GameObjectCollection#idOf(GameObject)} and
+ * {@link GameObjectCollection#slotOf(GameObject)}).
+ * An object may be in several layers; it keeps its id and slot until it was removed
+ * from all of them. The slots of removed objects are reused.
+ * The ids and slots are kept here rather than in the objects, since an object may be
+ * in several collections, with a different id and slot in each.
+ * @author Dan Nirel
+ */
+class GameObjectIds {
+    private final Consumer<GameObject> onReleased;
+    private final IdentityIntMap slots = new IdentityIntMap();
+    private int nextId = 0;
+    private int slotCount = 0;
+    //the object in each slot, its id, and the number of layers it's in
+    private GameObject[] objects = new GameObject[64];
+    private int[] ids = new int[64];
+    private int[] layerCounts = new int[64];
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount = 0;
+    private final List<GameObject> pendingRelease = new ArrayList<>();
+    private final DirtyObjects dirtyObjects = new DirtyObjects();
+    //null unless the transforms of the objects are kept in a store, by slot
+    private TransformStore transformStore = null;
+
+    /**
+     * @param onReleased invoked with an object right before its id and slot are released.
+     */
+    GameObjectIds(Consumer<GameObject> onReleased) {
+        this.onReleased = onReleased;
+    }
+
+    /**
+     * Should be invoked when an object was added to a layer.
+     */
+    void onAdded(GameObject go) {
+        int slot = slots.get(go);
+        if(slot != IdentityIntMap.ABSENT) {
+            layerCounts[slot]++;
+            return;
+        }
+        slot = assign(go);
+        layerCounts[slot] = 1;
+    }
+
+    /**
+     * Assigns an id and a slot to an object which is in no layer of the collection
+     * (e.g. one whose addition was not flushed yet), so that its contacts can be tracked.
+     * Unless the object is added to a layer by then, they are released by the next
+     * {@link #releaseRemoved()}.
+     */
+    void assignTemporarily(GameObject go) {
+        if(slots.get(go) != IdentityIntMap.ABSENT)
+            return;
+        int slot = assign(go);
+        layerCounts[slot] = 0;
+        pendingRelease.add(go);
+    }
+
+    private int assign(GameObject go) {
+        int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++;
+        if(slot == objects.length) {
+            objects = Arrays.copyOf(objects, 2*slot);
+            ids = Arrays.copyOf(ids, 2*slot);
+            layerCounts = Arrays.copyOf(layerCounts, 2*slot);
+            freeSlots = Arrays.copyOf(freeSlots, 2*slot);
+        }
+        objects[slot] = go;
+        ids[slot] = nextId++;
+        slots.put(go, slot);
+        dirtyObjects.track(go, slot);
+        if(transformStore != null)
+            transformStore.attach(go.transform(), slot);
+        return slot;
+    }
+
+    /**
+     * Should be invoked when an object was removed from a layer.
+     * The object's id is only released by {@link #releaseRemoved()}, so an object which
+     * moves from one layer to another keeps its id.
+     */
+    void onRemoved(GameObject go) {
+        int slot = slots.get(go);
+        if(slot == IdentityIntMap.ABSENT)
+            return;
+        if(--layerCounts[slot] == 0)
+            pendingRelease.add(go);
+    }
+
+    /**
+     * Releases the ids and slots of the objects removed from all their layers.
+     */
+    void releaseRemoved() {
+        for(int i = 0 ; i < pendingRelease.size() ; i++) {
+            var go = pendingRelease.get(i);
+            int slot = slots.get(go);
+            if(slot == IdentityIntMap.ABSENT || layerCounts[slot] > 0)
+                continue;
+            onReleased.accept(go);
+            dirtyObjects.untrack(go, slot);
+            if(transformStore != null)
+                transformStore.detach(slot);
+            objects[slot] = null;
+            freeSlots[freeSlotCount++] = slot;
+            slots.remove(go);
+        }
+        pendingRelease.clear();
+    }
+
+    /**
+     * Returns the slot of an object, or {@link GameObjectCollection#NO_ID} if it has none.
+     */
+    int slotOf(GameObject go) {
+        int slot = slots.get(go);
+        return slot == IdentityIntMap.ABSENT ? GameObjectCollection.NO_ID : slot;
+    }
+
+    /**
+     * Returns the id of an object, or {@link GameObjectCollection#NO_ID} if it has none.
+     */
+    int idOf(GameObject go) {
+        int slot = slots.get(go);
+        return slot == IdentityIntMap.ABSENT ? GameObjectCollection.NO_ID : ids[slot];
+    }
+
+    /**
+     * Returns the object in a slot, or null if the slot is free.
+     */
+    GameObject objectAt(int slot) {
+        return slot < slotCount ? objects[slot] : null;
+    }
+
+    /**
+     * The objects whose transform changed since the list was last cleared,
+     * including the objects which were assigned a slot since.
+     */
+    DirtyObjects dirtyObjects() {
+        //the objects moved by the store are only listed once marked as changed
+        if(transformStore != null)
+            transformStore.notifyPendingMoves();
+        return dirtyObjects;
+    }
+
+    /**
+     * Sets the store the transforms of the objects are kept in, by slot:
+     * the transforms of the current objects are moved into it (and out of the previous store),
+     * and so are those of the objects assigned a slot later.
+     * @param transformStore the store, or null to keep every transform's values in the transform.
+     */
+    void setTransformStore(TransformStore transformStore) {
+        if(this.transformStore != null)
+            this.transformStore.detachAll();
+        this.transformStore = transformStore;
+        if(transformStore == null)
+            return;
+        for(int slot = 0 ; slot < slotCount ; slot++) {
+            if(objects[slot] != null)
+                transformStore.attach(objects[slot].transform(), slot);
+        }
+    }
+
+    /**
+     * The store the transforms are kept in, or null
+     */
+    TransformStore transformStore() {
+        return transformStore;
+    }
+
+    /**
+     * The number of slots ever used; every slot is smaller.
+     */
+    int slotCount() {
+        return slotCount;
+    }
+}
@@ -22,7 +22,8 @@ class GameObjectPair {
 
     @Override
     public int hashCode() {
-        return Objects.hash(go1, go2);
+        //symmetric, like equals
+        return Objects.hashCode(go1) + Objects.hashCode(go2);
     }
 
     public GameObject getGameObject(int index) {
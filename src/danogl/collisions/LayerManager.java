@@ -1,12 +1,14 @@
 package danogl.collisions;
 
 import danogl.GameObject;
-import danogl.util.ConcatIterator;
+import danogl.util.IdentityModifiableList;
 import danogl.util.ModifiableList;
 
+import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.function.BiConsumer;
-import java.util.stream.StreamSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * package-private, used in LayerManager
@@ -14,13 +16,18 @@ import java.util.stream.StreamSupport;
  */
 class LayerData {
     int layerId;
+    //dense index of the layer, in order of creation
+    int index;
     int drawOrder;
-    ModifiableList<GameObject> objects = new ModifiableList<>(false);
-    Set<Integer> layersThisLayerCollidesWIth = new HashSet<>();
+    ModifiableList<GameObject> objects = new IdentityModifiableList<>();
+    //null unless the layer is static
+    StaticLayerIndex staticIndex;
 
-    LayerData(int layerId) {
+    LayerData(int layerId, int index, GameObjectIds ids) {
         this.layerId = layerId;
+        this.index = index;
         this.drawOrder = layerId;
+        objects.setFlushCallbacks(ids::onAdded, ids::onRemoved);
     }
 }
 
@@ -31,17 +38,41 @@ class LayerData {
  * @author Dan Nirel
  */
 public class LayerManager {
-    private ModifiableList<LayerData> layers = new ModifiableList<>(false);
+    private static final int INITIAL_LAYER_CAPACITY = 8;
+
+    //all layers, by index
+    private LayerData[] layersByIndex = new LayerData[INITIAL_LAYER_CAPACITY];
+    private int layerCount = 0;
+    //the layers in drawing order. Layers created since the last flush are not yet included.
+    private LayerData[] layers = new LayerData[INITIAL_LAYER_CAPACITY];
+    private int sortedLayerCount = 0;
+    //open-addressing table of the layers by their id
+    private int[] layerTableIds = new int[2*INITIAL_LAYER_CAPACITY];
+    private LayerData[] layerTableLayers = new LayerData[2*INITIAL_LAYER_CAPACITY];
+    //whether the layers of two indices collide, and the broadphase of the two layers by index
+    private boolean[][] collisionMatrix = new boolean[INITIAL_LAYER_CAPACITY][INITIAL_LAYER_CAPACITY];
+    private Broadphase[][] broadphases = new Broadphase[INITIAL_LAYER_CAPACITY][INITIAL_LAYER_CAPACITY];
     private boolean shouldReSortLayers = false;
     private BiConsumer<GameObject, GameObject> handlePair;
+    private GameObjectIds ids;
+    private Supplier<? extends Broadphase> broadphaseFactory = UniformGridBroadphase::new;
+    private Rectangle2D.Float bounds = new Rectangle2D.Float();
+    private long[] staticPairs = new long[16];
+    //the objects of all layers, in drawing order; rebuilt when the layers change
+    private GameObject[] drawOrder = new GameObject[16];
+    private int drawOrderCount = 0;
 
     /**
      * package-private constructor
+     * @param onObjectRemovedCallback invoked with an object when it was removed from
+     *                                all its layers, before its id is released.
      */
-    LayerManager(BiConsumer<GameObject, GameObject> handlePairCallback) {
+    LayerManager(BiConsumer<GameObject, GameObject> handlePairCallback,
+                 Consumer<GameObject> onObjectRemovedCallback) {
         this.handlePair = handlePairCallback;
-        layers.add(new LayerData(Layer.STATIC_OBJECTS));
-        layers.add(new LayerData(Layer.DEFAULT));
+        this.ids = new GameObjectIds(onObjectRemovedCallback);
+        createLayer(Layer.STATIC_OBJECTS);
+        createLayer(Layer.DEFAULT);
         shouldLayersCollide(Layer.STATIC_OBJECTS, Layer.DEFAULT, true);
         shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, true);
     }
@@ -55,7 +86,7 @@ public class LayerManager {
         var layer2Data = getLayerData(layer2Id);
         if(layer1Data == null || layer2Data == null)
             return false;
-        return layer1Data.layersThisLayerCollidesWIth.contains(layer2Id);
+        return collisionMatrix[layer1Data.index][layer2Data.index];
     }
 
     /**
@@ -85,23 +116,58 @@ public class LayerManager {
     public void shouldLayersCollide(int layer1Id, int layer2Id, boolean shouldCollide) {
         var layer1Data = getLayerDataThrow(layer1Id);
         var layer2Data = getLayerDataThrow(layer2Id);
-        if(shouldCollide) {
-            layer1Data.layersThisLayerCollidesWIth.add(layer2Id);
-            layer2Data.layersThisLayerCollidesWIth.add(layer1Id);
+        collisionMatrix[layer1Data.index][layer2Data.index] = shouldCollide;
+        collisionMatrix[layer2Data.index][layer1Data.index] = shouldCollide;
+    }
+
+    /**
+     * Sets the broadphase used to find the candidate pairs of every two colliding layers.
+     * @param broadphaseFactory creates a new broadphase instance; one is created for
+     *                          every pair of colliding layers.
+     */
+    public void setBroadphase(Supplier<? extends Broadphase> broadphaseFactory) {
+        if(broadphaseFactory == null)
+            throw new IllegalArgumentException("Broadphase factory cannot be null");
+        this.broadphaseFactory = broadphaseFactory;
+        for(var row : broadphases)
+            Arrays.fill(row, null);
+    }
+
+    /**
+     * Sets whether a layer is static, meaning its objects rarely move (e.g. walls).
+     * The objects of a static layer are indexed spatially, so that objects of
+     * other layers can quickly find the static objects they collide with.
+     * The index is rebuilt whenever objects are added to or removed from the layer,
+     * and whenever any of its objects moved or was resized, so static objects may still move;
+     * it is cheap as long as that rarely happens.
+     * By default layers are not static.
+     * @throws NoSuchElementException If the layer does not exist
+     */
+    public void setLayerStatic(int layerId, boolean isStatic) {
+        var layerData = getLayerDataThrow(layerId);
+        if(!isStatic) {
+            layerData.staticIndex = null;
         }
-        else {
-            layer1Data.layersThisLayerCollidesWIth.remove(layer2Id);
-            layer2Data.layersThisLayerCollidesWIth.remove(layer1Id);
+        else if(layerData.staticIndex == null) {
+            layerData.staticIndex = new StaticLayerIndex();
+            layerData.staticIndex.rebuild(layerData.objects);
         }
     }
 
+    /**
+     * Returns whether a layer was set to be static.
+     * @return true if the layer exists and is static, false otherwise.
+     * @see #setLayerStatic(int, boolean)
+     */
+    public boolean isLayerStatic(int layerId) {
+        var layerData = getLayerData(layerId);
+        return layerData != null && layerData.staticIndex != null;
+    }
+
     void addGameObject(GameObject obj, int layerId) {
         var layerData = getLayerData(layerId);
-        if(layerData == null) {
-            layerData = new LayerData(layerId);
-            layers.add(layerData);
-            shouldReSortLayers = true;
-        }
+        if(layerData == null)
+            layerData = createLayer(layerId);
         layerData.objects.add(obj);
     }
 
@@ -121,62 +187,266 @@ public class LayerManager {
         return layerData.objects.remove(obj);
     }
 
-    void flushChanges() {
-        layers.flushChanges();
-        for(var layerData : layers)
+    /**
+     * Executes the pending additions and removals of objects and layers.
+     * @return whether the objects of any layer, or the drawing order, changed.
+     */
+    boolean flushChanges() {
+        boolean isDrawOrderStale = sortedLayerCount < layerCount || shouldReSortLayers;
+        //add the new layers; they are sorted along with the rest
+        for( ; sortedLayerCount < layerCount ; sortedLayerCount++)
+            layers[sortedLayerCount] = layersByIndex[sortedLayerCount];
+        for(int i = 0 ; i < sortedLayerCount ; i++) {
+            var layerData = layers[i];
+            boolean hasChanged = layerData.objects.hasPendingChanges();
             layerData.objects.flushChanges();
-        if(!shouldReSortLayers)
-            return;
-        //re-sort layers
-        var newLayersList = new ModifiableList<LayerData>(false);
-        StreamSupport.stream(layers.spliterator(), false)
-                .sorted(Comparator.comparing(layerData->layerData.drawOrder))
-                .forEach(layerData->newLayersList.add(layerData));
-        layers = newLayersList;
-        layers.flushChanges();
+            if(hasChanged && layerData.staticIndex != null)
+                layerData.staticIndex.rebuild(layerData.objects);
+            isDrawOrderStale |= hasChanged;
+        }
+        ids.releaseRemoved();
+        if(shouldReSortLayers)
+            reSortLayers();
+        if(isDrawOrderStale)
+            rebuildDrawOrder();
+        return isDrawOrderStale;
+    }
+
+    private void reSortLayers() {
+        //a stable insertion sort; there are few layers, and they are usually already sorted
+        for(int i = 1 ; i < sortedLayerCount ; i++) {
+            var layerData = layers[i];
+            int j = i - 1;
+            for( ; j >= 0 && layers[j].drawOrder > layerData.drawOrder ; j--)
+                layers[j+1] = layers[j];
+            layers[j+1] = layerData;
+        }
         shouldReSortLayers = false;
     }
 
+    private void rebuildDrawOrder() {
+        int count = 0;
+        for(int i = 0 ; i < sortedLayerCount ; i++)
+            count += layers[i].objects.size();
+        if(drawOrder.length < count)
+            drawOrder = new GameObject[Math.max(count, 2*drawOrder.length)];
+        else if(count < drawOrderCount)
+            Arrays.fill(drawOrder, count, drawOrderCount, null);
+        int index = 0;
+        for(int i = 0 ; i < sortedLayerCount ; i++) {
+            var objects = layers[i].objects;
+            for(int j = 0 ; j < objects.size() ; j++)
+                drawOrder[index++] = objects.get(j);
+        }
+        drawOrderCount = count;
+    }
+
+    int objectCount() {
+        return drawOrderCount;
+    }
+
+    GameObject objectAt(int index) {
+        if(index < 0 || index >= drawOrderCount)
+            throw new IndexOutOfBoundsException(index);
+        return drawOrder[index];
+    }
+
     Iterator<GameObject> iterator() {
-        return new ConcatIterator<GameObject>(
-                StreamSupport.stream(layers.spliterator(), false)
-                .map(layerData -> (Iterable<GameObject>)layerData.objects)
-                ::iterator);
+        return new DrawOrderIterator(0, 1);
     }
 
     Iterable<GameObject> reverseOrder() {
-        return ()->new ConcatIterator<GameObject>(
-               StreamSupport.stream(layers.reverseOrder().spliterator(), false)
-               .map(layerData -> (Iterable<GameObject>)layerData.objects.reverseOrder())
-               ::iterator);
+        return ()->new DrawOrderIterator(drawOrderCount-1, -1);
+    }
+
+    private class DrawOrderIterator implements Iterator<GameObject> {
+        private int index;
+        private final int indexStep;
+
+        DrawOrderIterator(int startIndex, int indexStep) {
+            this.index = startIndex;
+            this.indexStep = indexStep;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index >= 0 && index < drawOrderCount;
+        }
+
+        @Override
+        public GameObject next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            var element = drawOrder[index];
+            index += indexStep;
+            return element;
+        }
     }
 
     void handleCollisions() {
-        for(int i = 0 ; i < layers.size() ; i++) {
-            for(int j = i ; j < layers.size() ; j++) {
-                if(!layers.get(i).layersThisLayerCollidesWIth.contains(
-                        layers.get(j).layerId))
-                    continue;
-                handleLayers(layers.get(i).objects, layers.get(j).objects);
+        for(int i = 0 ; i < sortedLayerCount ; i++) {
+            var collidesWith = collisionMatrix[layers[i].index];
+            for(int j = i ; j < sortedLayerCount ; j++) {
+                if(collidesWith[layers[j].index])
+                    handleLayers(layers[i], layers[j]);
             }
         }
     }
 
-    private void handleLayers(
-            ModifiableList<GameObject> layerObjs1, ModifiableList<GameObject> layerObjs2) {
-        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
-            int ind2 = 0;
-            if(layerObjs1 == layerObjs2)
-                ind2 = ind1 + 1;
-            for(; ind2 < layerObjs2.size() ; ind2++) {
-                if(layerObjs1.get(ind1) != layerObjs2.get(ind2))
-                    handlePair.accept(layerObjs1.get(ind1), layerObjs2.get(ind2));
+    private void handleLayers(LayerData layer1, LayerData layer2) {
+        if(layer1 != layer2 && (layer1.staticIndex == null) != (layer2.staticIndex == null)) {
+            handleStaticLayer(layer1, layer2);
+            return;
+        }
+        var broadphase = broadphases[layer1.index][layer2.index];
+        if(broadphase == null) {
+            broadphase = broadphaseFactory.get();
+            broadphases[layer1.index][layer2.index] = broadphase;
+        }
+        broadphase.findPairs(layer1.objects, layer2.objects, handlePair);
+    }
+
+    /**
+     * Handles two layers, exactly one of which is static, by querying the static layer's index
+     * with every object of the other layer.
+     */
+    private void handleStaticLayer(LayerData layer1, LayerData layer2) {
+        boolean isLayer1Static = layer1.staticIndex != null;
+        var staticLayer = isLayer1Static ? layer1 : layer2;
+        var movingObjects = isLayer1Static ? layer2.objects : layer1.objects;
+        int pairCount = 0;
+        for(int movingInd = 0 ; movingInd < movingObjects.size() ; movingInd++) {
+            Broadphase.worldBounds(movingObjects.get(movingInd), bounds);
+            int found = staticLayer.staticIndex.query(
+                    bounds.x, bounds.y, bounds.x+bounds.width, bounds.y+bounds.height);
+            for(int i = 0 ; i < found ; i++) {
+                long staticInd = staticLayer.staticIndex.candidate(i);
+                if(pairCount == staticPairs.length)
+                    staticPairs = Arrays.copyOf(staticPairs, 2*pairCount);
+                staticPairs[pairCount++] = isLayer1Static ?
+                        (staticInd << 32) | movingInd : ((long)movingInd << 32) | staticInd;
+            }
+        }
+        //report in the same order as a nested loop over the layers would
+        Arrays.sort(staticPairs, 0, pairCount);
+        for(int i = 0 ; i < pairCount ; i++) {
+            var go1 = layer1.objects.get((int)(staticPairs[i] >>> 32));
+            var go2 = layer2.objects.get((int)staticPairs[i]);
+            if(go1 != go2)
+                handlePair.accept(go1, go2);
+        }
+    }
+
+    /**
+     * Refits the index of every static layer which contains any of the dirty objects,
+     * since they may have moved after the index was built.
+     */
+    void refitStaticLayers(DirtyObjects dirtyObjects) {
+        if(dirtyObjects.size() == 0)
+            return;
+        for(int i = 0 ; i < sortedLayerCount ; i++) {
+            var layerData = layers[i];
+            if(layerData.staticIndex == null)
+                continue;
+            for(int j = 0 ; j < dirtyObjects.size() ; j++) {
+                if(layerData.objects.contains(dirtyObjects.get(j))) {
+                    layerData.staticIndex.refit(layerData.objects);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the objects which an object may collide with, according to the layers:
+     * the objects whose bounds overlap a region, in the layers which collide
+     * with any of the layers of the object. An object may be visited more than once.
+     */
+    void forEachObjectCollidingWith(GameObject go, Rectangle2D.Float region,
+                                    Consumer<GameObject> visitor) {
+        for(int i = 0 ; i < sortedLayerCount ; i++) {
+            if(!layers[i].objects.contains(go))
+                continue;
+            var collidesWith = collisionMatrix[layers[i].index];
+            for(int j = 0 ; j < sortedLayerCount ; j++) {
+                if(collidesWith[layers[j].index])
+                    forEachObjectInRegion(layers[j], region, visitor);
             }
         }
     }
 
+    private void forEachObjectInRegion(LayerData layerData, Rectangle2D.Float region,
+                                       Consumer<GameObject> visitor) {
+        var objects = layerData.objects;
+        if(layerData.staticIndex != null) {
+            int found = layerData.staticIndex.query(
+                    region.x, region.y, region.x+region.width, region.y+region.height);
+            for(int i = 0 ; i < found ; i++)
+                visitor.accept(objects.get(layerData.staticIndex.candidate(i)));
+            return;
+        }
+        for(int i = 0 ; i < objects.size() ; i++) {
+            Broadphase.worldBounds(objects.get(i), bounds);
+            if(bounds.x <= region.x+region.width && region.x <= bounds.x+bounds.width
+                    && bounds.y <= region.y+region.height && region.y <= bounds.y+bounds.height)
+                visitor.accept(objects.get(i));
+        }
+    }
+
+    GameObjectIds ids() {
+        return ids;
+    }
+
     private LayerData getLayerData(int layerId) {
-        return layers.findFirst(data -> data.layerId == layerId);
+        int mask = layerTableIds.length - 1;
+        for(int slot = tableSlotOf(layerId, mask) ; layerTableLayers[slot] != null ;
+            slot = (slot + 1) & mask) {
+            if(layerTableIds[slot] == layerId)
+                return layerTableLayers[slot];
+        }
+        return null;
+    }
+
+    private LayerData createLayer(int layerId) {
+        if(layerCount == layersByIndex.length)
+            growLayerCapacity(2*layerCount);
+        var layerData = new LayerData(layerId, layerCount, ids);
+        layersByIndex[layerCount++] = layerData;
+        addToLayerTable(layerData);
+        shouldReSortLayers = true;
+        return layerData;
+    }
+
+    private void growLayerCapacity(int capacity) {
+        layersByIndex = Arrays.copyOf(layersByIndex, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        collisionMatrix = Arrays.copyOf(collisionMatrix, capacity);
+        broadphases = Arrays.copyOf(broadphases, capacity);
+        for(int i = 0 ; i < capacity ; i++) {
+            collisionMatrix[i] = i < layerCount ?
+                    Arrays.copyOf(collisionMatrix[i], capacity) : new boolean[capacity];
+            broadphases[i] = i < layerCount ?
+                    Arrays.copyOf(broadphases[i], capacity) : new Broadphase[capacity];
+        }
+        //keep the table at most half full
+        layerTableIds = new int[2*capacity];
+        layerTableLayers = new LayerData[2*capacity];
+        for(int i = 0 ; i < layerCount ; i++)
+            addToLayerTable(layersByIndex[i]);
+    }
+
+    private void addToLayerTable(LayerData layerData) {
+        int mask = layerTableIds.length - 1;
+        int slot = tableSlotOf(layerData.layerId, mask);
+        while(layerTableLayers[slot] != null)
+            slot = (slot + 1) & mask;
+        layerTableIds[slot] = layerData.layerId;
+        layerTableLayers[slot] = layerData;
+    }
+
+    private static int tableSlotOf(int layerId, int mask) {
+        int hash = layerId * 0x9E3779B1;
+        return (hash ^ (hash >>> 16)) & mask;
     }
 
     private LayerData getLayerDataThrow(int layerId) {
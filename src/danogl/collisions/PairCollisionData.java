@@ -10,6 +10,10 @@ import danogl.GameObject;
  */
 public abstract class PairCollisionData extends GameObjectPair {
     protected Collision collision1, collision2;
+    //the last collision-handling pass in which the pair was handled
+    int lastHandledPass;
+    //links in the lists of contacts of each of the objects (see ContactLists)
+    PairCollisionData previous1, next1, previous2, next2;
 
     /**
      * Constructor. Who knew.
@@ -30,6 +34,34 @@ public abstract class PairCollisionData extends GameObjectPair {
         throw new IndexOutOfBoundsException();
     }
 
+    /**
+     * package-private. The next contact in the contact list of the given object of the pair.
+     */
+    PairCollisionData nextContactOf(GameObject go) {
+        return go == go1() ? next1 : next2;
+    }
+
+    /**
+     * package-private. The previous contact in the contact list of the given object of the pair.
+     */
+    PairCollisionData previousContactOf(GameObject go) {
+        return go == go1() ? previous1 : previous2;
+    }
+
+    void setNextContactOf(GameObject go, PairCollisionData next) {
+        if(go == go1())
+            next1 = next;
+        else
+            next2 = next;
+    }
+
+    void setPreviousContactOf(GameObject go, PairCollisionData previous) {
+        if(go == go1())
+            previous1 = previous;
+        else
+            previous2 = previous;
+    }
+
     /**
      * Notify the object that a new frame has begun. This may help
      * with caching decisions.
@@ -17,7 +17,9 @@ public interface PairCollisionHandler {
      */
     PairCollisionData computeCollisionData(GameObject go1, GameObject go2);
     /**
-     * Is this CollisionHandler responsible for detecting these two GameObjects
+     * Is this CollisionHandler responsible for detecting these two GameObjects.
+     * The answer should only depend on the types of the objects' colliders
+     * (see {@link Collider#colliderTypeId()}), since it is cached per pair of types.
      */
     boolean supportsPair(GameObject go1, GameObject go2);
 }
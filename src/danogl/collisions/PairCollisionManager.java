@@ -15,7 +15,17 @@ import java.util.List;
  * @author Dan Nirel
  */
 class PairCollisionManager {
+    //marks a pair of collider types which no handler supports
+    private static final PairCollisionHandler NO_HANDLER = new PairCollisionHandler() {
+        @Override
+        public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) { return null; }
+        @Override
+        public boolean supportsPair(GameObject go1, GameObject go2) { return false; }
+    };
+
     private List<PairCollisionHandler> handlers = new ArrayList<>();
+    //the handler of every pair of collider type ids; null if not looked up yet
+    private PairCollisionHandler[][] dispatchTable = new PairCollisionHandler[0][0];
 
     public PairCollisionManager() {
         registerSinglePairCollisionHandler(
@@ -23,16 +33,44 @@ class PairCollisionManager {
     }
 
     public void registerSinglePairCollisionHandler(PairCollisionHandler handler) {
-        if(!handlers.contains(handler))
+        if(!handlers.contains(handler)) {
             handlers.add(handler);
+            //pairs without a handler might now have one
+            dispatchTable = new PairCollisionHandler[0][0];
+        }
     }
 
+    /**
+     * Computes the collision data of two objects, using the first registered handler
+     * which supports the types of their colliders.
+     * @return the collision data, or null if the objects don't collide or no handler supports them
+     */
     public PairCollisionData getCollisionData(GameObject go1, GameObject go2) {
+        int type1 = go1.physics().collider().colliderTypeId();
+        int type2 = go2.physics().collider().colliderTypeId();
+        if(Math.max(type1, type2) >= dispatchTable.length)
+            growDispatchTable(Math.max(type1, type2) + 1);
+        var handler = dispatchTable[type1][type2];
+        if(handler == null) {
+            handler = findHandler(go1, go2);
+            dispatchTable[type1][type2] = handler;
+        }
+        return handler.computeCollisionData(go1, go2);
+    }
+
+    private PairCollisionHandler findHandler(GameObject go1, GameObject go2) {
         for(var handler : handlers) {
-            var collisionData = handler.computeCollisionData(go1, go2);
-            if(collisionData != null)
-                return collisionData;
+            if(handler.supportsPair(go1, go2))
+                return handler;
         }
-        return null;
+        return NO_HANDLER;
+    }
+
+    private void growDispatchTable(int minTypeCount) {
+        int typeCount = Math.max(minTypeCount, ColliderTypes.count());
+        var newTable = new PairCollisionHandler[typeCount][typeCount];
+        for(int type = 0 ; type < dispatchTable.length ; type++)
+            System.arraycopy(dispatchTable[type], 0, newTable[type], 0, dispatchTable.length);
+        dispatchTable = newTable;
     }
 }
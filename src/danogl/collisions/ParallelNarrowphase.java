@@ -0,0 +1,161 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.AABB.AABBPairCollisionHandler;
+import danogl.components.TransformStore;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * package-private. Buffers the candidate pairs reported by the broadphase, and tests them
+ * for intersection in parallel, so that the (serial) handling of the pairs can skip
+ * those which do not intersect.
+ * Only pairs of two AABB colliders are tested; the rest are always handled.
+ * The test only reads the objects (transforms kept in a store are refreshed beforehand,
+ * see {@link #syncStoredTransforms()}), and the results of each task
+ * are written to its own range of the results array, so the tasks need no synchronization.
+ * @author Dan Nirel
+ */
+class ParallelNarrowphase {
+    /** The minimal number of pairs tested by a single task */
+    static final int MIN_PAIRS_PER_TASK = 1024;
+
+    private static final byte UNTESTED = 0, SEPARATE = 1, INTERSECTING = 2;
+
+    private final ForkJoinPool pool;
+    private final GameObjectIds ids;
+    private GameObject[] objects1 = new GameObject[64], objects2 = new GameObject[64];
+    private byte[] results = new byte[64];
+    private int candidateCount = 0;
+    //the collision pass in which each object (by slot) was last part of a collision
+    private int[] collidedPasses = new int[64];
+
+    /**
+     * @param pool runs the tests
+     * @param ids the ids and slots of the objects of the collection
+     */
+    ParallelNarrowphase(ForkJoinPool pool, GameObjectIds ids) {
+        this.pool = pool;
+        this.ids = ids;
+    }
+
+    void addCandidate(GameObject go1, GameObject go2) {
+        if(candidateCount == objects1.length) {
+            objects1 = Arrays.copyOf(objects1, 2*candidateCount);
+            objects2 = Arrays.copyOf(objects2, 2*candidateCount);
+            results = Arrays.copyOf(results, 2*candidateCount);
+        }
+        objects1[candidateCount] = go1;
+        objects2[candidateCount] = go2;
+        candidateCount++;
+    }
+
+    int candidateCount() {
+        return candidateCount;
+    }
+
+    GameObject object1(int candidate) {
+        return objects1[candidate];
+    }
+
+    GameObject object2(int candidate) {
+        return objects2[candidate];
+    }
+
+    /**
+     * Refreshes the transforms of the candidates which are kept in a store, whichever
+     * collection's store that is, so that the tests only read them.
+     * Should be invoked on the collection's thread before {@link #testCandidates()}.
+     */
+    void syncStoredTransforms() {
+        for(int i = 0 ; i < candidateCount ; i++) {
+            TransformStore.sync(objects1[i].transform());
+            TransformStore.sync(objects2[i].transform());
+        }
+    }
+
+    /**
+     * Tests all candidates for intersection, in parallel if there are enough of them.
+     */
+    void testCandidates() {
+        if(candidateCount < 2*MIN_PAIRS_PER_TASK)
+            new TestTask(0, candidateCount).compute();
+        else
+            pool.invoke(new TestTask(0, candidateCount));
+    }
+
+    /**
+     * Whether a candidate was found not to intersect, and neither of its objects took part
+     * in a collision earlier in the current pass (which might have moved them since the test).
+     */
+    boolean isSeparate(int candidate, int collisionPass) {
+        return results[candidate] == SEPARATE
+                && !hasCollidedInPass(objects1[candidate], collisionPass)
+                && !hasCollidedInPass(objects2[candidate], collisionPass);
+    }
+
+    /**
+     * Marks that an object took part in a collision in the current pass;
+     * its collision callbacks or the resolver may have moved it.
+     */
+    void markCollided(GameObject go, int collisionPass) {
+        int slot = ids.slotOf(go);
+        if(slot == GameObjectCollection.NO_ID)
+            return;
+        if(slot >= collidedPasses.length)
+            collidedPasses = Arrays.copyOf(collidedPasses, Math.max(slot + 1, 2*collidedPasses.length));
+        collidedPasses[slot] = collisionPass;
+    }
+
+    /**
+     * Forgets the candidates, ahead of the next pass.
+     */
+    void clear() {
+        Arrays.fill(objects1, 0, candidateCount, null);
+        Arrays.fill(objects2, 0, candidateCount, null);
+        candidateCount = 0;
+    }
+
+    private boolean hasCollidedInPass(GameObject go, int collisionPass) {
+        int slot = ids.slotOf(go);
+        return slot == GameObjectCollection.NO_ID
+                || (slot < collidedPasses.length && collidedPasses[slot] == collisionPass);
+    }
+
+    private class TestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start, end;
+
+        TestTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start >= 2*MIN_PAIRS_PER_TASK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new TestTask(start, middle), new TestTask(middle, end));
+                return;
+            }
+            var rect1World = new Rectangle2D.Float();
+            var rect2World = new Rectangle2D.Float();
+            for(int i = start ; i < end ; i++) {
+                var go1 = objects1[i];
+                var go2 = objects2[i];
+                if(!(go1.physics().collider() instanceof AABBCollider)
+                        || !(go2.physics().collider() instanceof AABBCollider)) {
+                    results[i] = UNTESTED;
+                    continue;
+                }
+                results[i] = AABBPairCollisionHandler.intersects(go1, go2, rect1World, rect2World) ?
+                        INTERSECTING : SEPARATE;
+            }
+        }
+    }
+}
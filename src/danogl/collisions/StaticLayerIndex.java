@@ -0,0 +1,193 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * package-private. A spatial index of the objects of a static layer
+ * (see {@link LayerManager#setLayerStatic(int, boolean)}): a bucketed grid covering the
+ * bounds of the layer, stored as one array of object indices sorted by cell.
+ * The index is rebuilt when objects are added to or removed from the layer, and when
+ * any of its objects moved (see {@link #refit(ModifiableList)}).
+ * @author Dan Nirel
+ */
+class StaticLayerIndex {
+    private static final int MAX_CELLS_PER_OBJECT = 64;
+    private static final int MAX_CELLS_PER_OBJECT_IN_GRID = 4;
+
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+    private float[] minX = new float[0], minY = new float[0], maxX = new float[0], maxY = new float[0];
+    private int objectCount;
+
+    private float gridMinX, gridMinY, cellSize;
+    private int columns, rows;
+    //the objects of cell c are cellObjects[cellStarts[c]] to cellObjects[cellStarts[c+1]-1]
+    private int[] cellStarts = new int[1];
+    private int[] cellObjects = new int[0];
+    private int[] oversizedObjects = new int[0];
+    private int oversizedCount;
+
+    private int[] queryStamps = new int[0];
+    private int currentStamp;
+    private int[] candidates = new int[0];
+    private int candidateCount;
+
+    /**
+     * Rebuild the index from scratch, according to the current positions of the objects.
+     */
+    void rebuild(ModifiableList<GameObject> objects) {
+        objectCount = objects.size();
+        if(minX.length < objectCount) {
+            int capacity = Math.max(objectCount, 2*minX.length);
+            minX = new float[capacity];
+            minY = new float[capacity];
+            maxX = new float[capacity];
+            maxY = new float[capacity];
+            queryStamps = new int[capacity];
+            candidates = new int[capacity];
+            oversizedObjects = new int[capacity];
+            currentStamp = 0;
+        }
+        oversizedCount = 0;
+        columns = rows = 0;
+        if(objectCount == 0)
+            return;
+
+        float gridMaxX, gridMaxY, sizesSum = 0;
+        gridMinX = gridMinY = Float.POSITIVE_INFINITY;
+        gridMaxX = gridMaxY = Float.NEGATIVE_INFINITY;
+        for(int i = 0 ; i < objectCount ; i++) {
+            Broadphase.worldBounds(objects.get(i), bounds);
+            minX[i] = bounds.x;
+            minY[i] = bounds.y;
+            maxX[i] = bounds.x + bounds.width;
+            maxY[i] = bounds.y + bounds.height;
+            gridMinX = Math.min(gridMinX, minX[i]);
+            gridMinY = Math.min(gridMinY, minY[i]);
+            gridMaxX = Math.max(gridMaxX, maxX[i]);
+            gridMaxY = Math.max(gridMaxY, maxY[i]);
+            sizesSum += Math.max(bounds.width, bounds.height);
+        }
+
+        //cells the size of the average object, but not many more cells than objects
+        float width = Math.max(gridMaxX - gridMinX, 1), height = Math.max(gridMaxY - gridMinY, 1);
+        cellSize = Math.max(sizesSum / objectCount, 1);
+        cellSize = Math.max(cellSize,
+                (float)Math.sqrt(width * height / (MAX_CELLS_PER_OBJECT_IN_GRID * objectCount)));
+        while((long)((width / cellSize) + 1) * (long)((height / cellSize) + 1)
+                > (long)MAX_CELLS_PER_OBJECT_IN_GRID * objectCount + MAX_CELLS_PER_OBJECT)
+            cellSize *= 2;
+        columns = (int)(width / cellSize) + 1;
+        rows = (int)(height / cellSize) + 1;
+
+        //counting sort of the objects by cell
+        int cellCount = columns * rows;
+        if(cellStarts.length < cellCount + 1)
+            cellStarts = new int[cellCount + 1];
+        Arrays.fill(cellStarts, 0, cellCount + 1, 0);
+        for(int i = 0 ; i < objectCount ; i++) {
+            if(isOversized(i)) {
+                oversizedObjects[oversizedCount++] = i;
+                continue;
+            }
+            for(int row = rowOf(minY[i]) ; row <= rowOf(maxY[i]) ; row++)
+                for(int column = columnOf(minX[i]) ; column <= columnOf(maxX[i]) ; column++)
+                    cellStarts[row*columns + column + 1]++;
+        }
+        for(int cell = 0 ; cell < cellCount ; cell++)
+            cellStarts[cell + 1] += cellStarts[cell];
+        if(cellObjects.length < cellStarts[cellCount])
+            cellObjects = new int[cellStarts[cellCount]];
+        for(int i = 0 ; i < objectCount ; i++) {
+            if(isOversized(i))
+                continue;
+            for(int row = rowOf(minY[i]) ; row <= rowOf(maxY[i]) ; row++)
+                for(int column = columnOf(minX[i]) ; column <= columnOf(maxX[i]) ; column++)
+                    cellObjects[cellStarts[row*columns + column]++] = i;
+        }
+        //the starts were advanced to the ends of the cells; shift them back
+        for(int cell = cellCount ; cell > 0 ; cell--)
+            cellStarts[cell] = cellStarts[cell - 1];
+        cellStarts[0] = 0;
+    }
+
+    /**
+     * Rebuild the index if the bounds of any of the objects changed since it was built.
+     * The objects must be the ones the index was built from.
+     */
+    void refit(ModifiableList<GameObject> objects) {
+        for(int i = 0 ; i < objectCount ; i++) {
+            Broadphase.worldBounds(objects.get(i), bounds);
+            if(minX[i] != bounds.x || minY[i] != bounds.y
+                    || maxX[i] != bounds.x + bounds.width || maxY[i] != bounds.y + bounds.height) {
+                rebuild(objects);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the indexed objects whose bounds overlap the given rectangle.
+     * The results are available through {@link #candidate(int)}, sorted by index.
+     * @return the number of objects found
+     */
+    int query(float qMinX, float qMinY, float qMaxX, float qMaxY) {
+        nextStamp();
+        candidateCount = 0;
+        if(columns > 0 && qMaxX >= gridMinX && qMaxY >= gridMinY) {
+            int column0 = columnOf(qMinX), column1 = columnOf(qMaxX);
+            int row0 = rowOf(qMinY), row1 = rowOf(qMaxY);
+            for(int row = row0 ; row <= row1 ; row++) {
+                for(int column = column0 ; column <= column1 ; column++) {
+                    int cell = row*columns + column;
+                    for(int i = cellStarts[cell] ; i < cellStarts[cell + 1] ; i++)
+                        tryAddCandidate(cellObjects[i], qMinX, qMinY, qMaxX, qMaxY);
+                }
+            }
+        }
+        for(int i = 0 ; i < oversizedCount ; i++)
+            tryAddCandidate(oversizedObjects[i], qMinX, qMinY, qMaxX, qMaxY);
+        Arrays.sort(candidates, 0, candidateCount);
+        return candidateCount;
+    }
+
+    /**
+     * Returns the index (in the layer) of a result of the last query.
+     */
+    int candidate(int i) {
+        return candidates[i];
+    }
+
+    private void tryAddCandidate(int ind, float qMinX, float qMinY, float qMaxX, float qMaxY) {
+        if(queryStamps[ind] == currentStamp)
+            return;
+        queryStamps[ind] = currentStamp;
+        if(minX[ind] <= qMaxX && qMinX <= maxX[ind] && minY[ind] <= qMaxY && qMinY <= maxY[ind])
+            candidates[candidateCount++] = ind;
+    }
+
+    private boolean isOversized(int ind) {
+        long cells = ((long)columnOf(maxX[ind]) - columnOf(minX[ind]) + 1)
+                * ((long)rowOf(maxY[ind]) - rowOf(minY[ind]) + 1);
+        return cells > MAX_CELLS_PER_OBJECT;
+    }
+
+    private void nextStamp() {
+        if(currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(queryStamps, 0);
+            currentStamp = 0;
+        }
+        currentStamp++;
+    }
+
+    private int columnOf(float x) {
+        return Math.min(Math.max((int)((x - gridMinX) / cellSize), 0), columns - 1);
+    }
+
+    private int rowOf(float y) {
+        return Math.min(Math.max((int)((y - gridMinY) / cellSize), 0), rows - 1);
+    }
+}
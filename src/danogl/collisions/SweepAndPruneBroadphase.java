@@ -0,0 +1,214 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A sort-and-sweep (sweep-and-prune) broadphase. The bounds' endpoints of the objects
+ * are kept sorted along each axis; the pairs are found by sweeping along the axis
+ * on which the objects are more spread out.
+ * The endpoints remain sorted between frames and are re-sorted using insertion sort,
+ * which is nearly linear when objects move only a little each frame.
+ * When the objects of the layers change, the endpoints are sorted from scratch.
+ * @author Dan Nirel
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+
+    //the objects of both layers: first those of layer 1, then those of layer 2 (if different)
+    private GameObject[] proxies = new GameObject[0];
+    private int proxyCount = 0;
+    private int layer1Size = 0;
+    private boolean sameLayer = false;
+    private float[] minX = new float[0], minY = new float[0], maxX = new float[0], maxY = new float[0];
+
+    //an endpoint is (proxy << 1) | isMax
+    private int[] endpointsX = new int[0], endpointsY = new int[0];
+    private long[] sortKeys = new long[0];
+
+    private int[] active = new int[0], activePositions = new int[0];
+    private int activeCount;
+    private long[] pairs = new long[16];
+    private int pairCount;
+
+    @Override
+    public void findPairs(ModifiableList<GameObject> layerObjs1,
+                          ModifiableList<GameObject> layerObjs2,
+                          BiConsumer<GameObject, GameObject> pairHandler) {
+        if(layerObjs1.size() == 0 || layerObjs2.size() == 0)
+            return;
+        if(isSameProxies(layerObjs1, layerObjs2)) {
+            updateBounds();
+            insertionSort(endpointsX, minX, maxX);
+            insertionSort(endpointsY, minY, maxY);
+        }
+        else {
+            rebuild(layerObjs1, layerObjs2);
+        }
+
+        if(spread(minX, maxX) >= spread(minY, maxY))
+            sweep(endpointsX, minX, maxX, minY, maxY);
+        else
+            sweep(endpointsY, minY, maxY, minX, maxX);
+
+        Arrays.sort(pairs, 0, pairCount);
+        for(int i = 0 ; i < pairCount ; i++) {
+            var go1 = layerObjs1.get((int)(pairs[i] >>> 32));
+            var go2 = layerObjs2.get((int)pairs[i]);
+            if(go1 != go2)
+                pairHandler.accept(go1, go2);
+        }
+    }
+
+    private boolean isSameProxies(ModifiableList<GameObject> layerObjs1,
+                                  ModifiableList<GameObject> layerObjs2) {
+        boolean isSameLayer = layerObjs1 == layerObjs2;
+        int size = isSameLayer ? layerObjs1.size() : layerObjs1.size() + layerObjs2.size();
+        if(isSameLayer != sameLayer || size != proxyCount || layerObjs1.size() != layer1Size)
+            return false;
+        for(int i = 0 ; i < layer1Size ; i++)
+            if(proxies[i] != layerObjs1.get(i))
+                return false;
+        for(int i = layer1Size ; i < proxyCount ; i++)
+            if(proxies[i] != layerObjs2.get(i - layer1Size))
+                return false;
+        return true;
+    }
+
+    private void rebuild(ModifiableList<GameObject> layerObjs1, ModifiableList<GameObject> layerObjs2) {
+        sameLayer = layerObjs1 == layerObjs2;
+        layer1Size = layerObjs1.size();
+        proxyCount = sameLayer ? layer1Size : layer1Size + layerObjs2.size();
+        if(proxies.length < proxyCount) {
+            int capacity = Math.max(proxyCount, 2*proxies.length);
+            proxies = new GameObject[capacity];
+            minX = new float[capacity];
+            minY = new float[capacity];
+            maxX = new float[capacity];
+            maxY = new float[capacity];
+            endpointsX = new int[2*capacity];
+            endpointsY = new int[2*capacity];
+            sortKeys = new long[2*capacity];
+            active = new int[capacity];
+            activePositions = new int[capacity];
+        }
+        Arrays.fill(proxies, proxyCount, proxies.length, null);
+        for(int i = 0 ; i < layer1Size ; i++)
+            proxies[i] = layerObjs1.get(i);
+        for(int i = layer1Size ; i < proxyCount ; i++)
+            proxies[i] = layerObjs2.get(i - layer1Size);
+        updateBounds();
+        fullSort(endpointsX, minX, maxX);
+        fullSort(endpointsY, minY, maxY);
+    }
+
+    private void updateBounds() {
+        for(int i = 0 ; i < proxyCount ; i++) {
+            Broadphase.worldBounds(proxies[i], bounds);
+            minX[i] = bounds.x;
+            minY[i] = bounds.y;
+            maxX[i] = bounds.x + bounds.width;
+            maxY[i] = bounds.y + bounds.height;
+        }
+    }
+
+    private void fullSort(int[] endpoints, float[] mins, float[] maxs) {
+        int count = 2*proxyCount;
+        for(int proxy = 0 ; proxy < proxyCount ; proxy++) {
+            sortKeys[2*proxy] = sortKey(mins[proxy], proxy, 0);
+            sortKeys[2*proxy+1] = sortKey(maxs[proxy], proxy, 1);
+        }
+        Arrays.sort(sortKeys, 0, count);
+        for(int i = 0 ; i < count ; i++) {
+            int isMax = (int)(sortKeys[i] >>> 31) & 1;
+            int proxy = (int)sortKeys[i] & Integer.MAX_VALUE;
+            endpoints[i] = (proxy << 1) | isMax;
+        }
+    }
+
+    private void insertionSort(int[] endpoints, float[] mins, float[] maxs) {
+        int count = 2*proxyCount;
+        for(int i = 1 ; i < count ; i++) {
+            int endpoint = endpoints[i];
+            float value = valueOf(endpoint, mins, maxs);
+            int j = i - 1;
+            while(j >= 0 && isBefore(value, endpoint, valueOf(endpoints[j], mins, maxs), endpoints[j])) {
+                endpoints[j+1] = endpoints[j];
+                j--;
+            }
+            endpoints[j+1] = endpoint;
+        }
+    }
+
+    private void sweep(int[] endpoints, float[] mins, float[] maxs,
+                       float[] otherMins, float[] otherMaxs) {
+        activeCount = 0;
+        pairCount = 0;
+        for(int i = 0 ; i < 2*proxyCount ; i++) {
+            int proxy = endpoints[i] >>> 1;
+            if((endpoints[i] & 1) == 1) {
+                //remove from the active proxies
+                int position = activePositions[proxy];
+                active[position] = active[--activeCount];
+                activePositions[active[position]] = position;
+                continue;
+            }
+            for(int j = 0 ; j < activeCount ; j++) {
+                int other = active[j];
+                if(otherMins[proxy] <= otherMaxs[other] && otherMins[other] <= otherMaxs[proxy])
+                    addPair(proxy, other);
+            }
+            activePositions[proxy] = activeCount;
+            active[activeCount++] = proxy;
+        }
+    }
+
+    private void addPair(int proxy1, int proxy2) {
+        int ind1, ind2;
+        if(sameLayer) {
+            ind1 = Math.min(proxy1, proxy2);
+            ind2 = Math.max(proxy1, proxy2);
+        }
+        else {
+            boolean isProxy1InLayer1 = proxy1 < layer1Size;
+            if(isProxy1InLayer1 == proxy2 < layer1Size)
+                return; //then both are of the same layer
+            ind1 = isProxy1InLayer1 ? proxy1 : proxy2;
+            ind2 = (isProxy1InLayer1 ? proxy2 : proxy1) - layer1Size;
+        }
+        if(pairCount == pairs.length)
+            pairs = Arrays.copyOf(pairs, 2*pairs.length);
+        pairs[pairCount++] = ((long)ind1 << 32) | ind2;
+    }
+
+    private float spread(float[] mins, float[] maxs) {
+        //variance of the centers
+        double sum = 0, sumOfSquares = 0;
+        for(int i = 0 ; i < proxyCount ; i++) {
+            double center = 0.5*(mins[i] + maxs[i]);
+            sum += center;
+            sumOfSquares += center*center;
+        }
+        double mean = sum/proxyCount;
+        return (float)(sumOfSquares/proxyCount - mean*mean);
+    }
+
+    private static float valueOf(int endpoint, float[] mins, float[] maxs) {
+        return (endpoint & 1) == 0 ? mins[endpoint >>> 1] : maxs[endpoint >>> 1];
+    }
+
+    //minimums come before maximums of equal value, so touching bounds are considered overlapping
+    private static boolean isBefore(float value1, int endpoint1, float value2, int endpoint2) {
+        return value1 < value2 || (value1 == value2 && (endpoint1 & 1) < (endpoint2 & 1));
+    }
+
+    private static long sortKey(float value, int proxy, int isMax) {
+        int bits = Float.floatToIntBits(value);
+        int sortableBits = bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+        return ((long)sortableBits << 32) | ((long)isMax << 31) | proxy;
+    }
+}
@@ -0,0 +1,203 @@
+package danogl.collisions;
+
+import danogl.GameObject;
+import danogl.util.ModifiableList;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A broadphase which hashes the objects of one layer into a uniform grid of square cells,
+ * and then checks every object of the other layer only against the objects sharing
+ * a cell with it. The grid is unbounded (cells are hashed rather than stored in a 2D array),
+ * so objects may be anywhere in the world.
+ * This is the default broadphase. It performs best when the cell size is about the size
+ * of the typical colliding object; objects covering very many cells (backgrounds,
+ * borders of a huge level) are not hashed but simply checked against every object.
+ * @author Dan Nirel
+ */
+public class UniformGridBroadphase implements Broadphase {
+    /** The default length of a cell's edge, in world units */
+    public static final float DEFAULT_CELL_SIZE = 64;
+
+    private static final int MAX_CELLS_PER_OBJECT = 64;
+    private static final int MIN_BUCKETS = 64;
+    private static final int NO_ENTRY = -1;
+    //cells are clamped to this range, so that looping over a range of cells cannot overflow;
+    //objects beyond it share the edge cells, which only costs extra candidates
+    private static final int MAX_CELL = 1 << 30;
+
+    private final float cellSize;
+    private final Rectangle2D.Float bounds = new Rectangle2D.Float();
+
+    //bounds of the hashed objects, by their index in the hashed layer
+    private float[] minX = new float[0], minY = new float[0], maxX = new float[0], maxY = new float[0];
+    //the last query in which each hashed object was found; used to avoid duplicate candidates
+    private int[] queryStamps = new int[0];
+    private int currentStamp = 0;
+    private int objectCount;
+
+    //each bucket heads a chain of entries, each entry places a hashed object in a cell
+    private int[] bucketHeads = new int[0];
+    private int[] entryNext = new int[0], entryObject = new int[0],
+            entryCellX = new int[0], entryCellY = new int[0];
+    private int entryCount;
+    private int[] oversizedObjects = new int[0];
+    private int oversizedCount;
+
+    private int[] candidates = new int[0];
+    private int candidateCount;
+
+    /**
+     * Construct a grid broadphase with the default cell size.
+     */
+    public UniformGridBroadphase() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Construct a grid broadphase.
+     * @param cellSize the length of a cell's edge, in world units
+     */
+    public UniformGridBroadphase(float cellSize) {
+        if(!(cellSize > 0))
+            throw new IllegalArgumentException("Cell size must be positive");
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public void findPairs(ModifiableList<GameObject> layerObjs1,
+                          ModifiableList<GameObject> layerObjs2,
+                          BiConsumer<GameObject, GameObject> pairHandler) {
+        if(layerObjs1.size() == 0 || layerObjs2.size() == 0)
+            return;
+        build(layerObjs2);
+        boolean sameLayer = layerObjs1 == layerObjs2;
+        for(int ind1 = 0 ; ind1 < layerObjs1.size() ; ind1++) {
+            var go1 = layerObjs1.get(ind1);
+            Broadphase.worldBounds(go1, bounds);
+            query(bounds.x, bounds.y, bounds.x+bounds.width, bounds.y+bounds.height,
+                    sameLayer ? ind1 : -1);
+            for(int i = 0 ; i < candidateCount ; i++) {
+                var go2 = layerObjs2.get(candidates[i]);
+                if(go1 != go2)
+                    pairHandler.accept(go1, go2);
+            }
+        }
+    }
+
+    private void build(ModifiableList<GameObject> objects) {
+        int size = objects.size();
+        if(minX.length < size) {
+            int capacity = Math.max(size, 2*minX.length);
+            minX = new float[capacity];
+            minY = new float[capacity];
+            maxX = new float[capacity];
+            maxY = new float[capacity];
+            queryStamps = new int[capacity];
+            oversizedObjects = new int[capacity];
+            candidates = new int[capacity];
+            currentStamp = 0;
+        }
+        int bucketCount = Math.max(MIN_BUCKETS, Integer.highestOneBit(Math.max(1, size)) << 2);
+        if(bucketHeads.length < bucketCount)
+            bucketHeads = new int[bucketCount];
+        Arrays.fill(bucketHeads, NO_ENTRY);
+        entryCount = 0;
+        oversizedCount = 0;
+        objectCount = size;
+
+        for(int i = 0 ; i < size ; i++) {
+            Broadphase.worldBounds(objects.get(i), bounds);
+            minX[i] = bounds.x;
+            minY[i] = bounds.y;
+            maxX[i] = bounds.x + bounds.width;
+            maxY[i] = bounds.y + bounds.height;
+            int cellX0 = cellOf(minX[i]), cellX1 = cellOf(maxX[i]);
+            int cellY0 = cellOf(minY[i]), cellY1 = cellOf(maxY[i]);
+            if(cellCount(cellX0, cellY0, cellX1, cellY1) > MAX_CELLS_PER_OBJECT) {
+                oversizedObjects[oversizedCount++] = i;
+                continue;
+            }
+            for(int cellY = cellY0 ; cellY <= cellY1 ; cellY++)
+                for(int cellX = cellX0 ; cellX <= cellX1 ; cellX++)
+                    addEntry(cellX, cellY, i);
+        }
+    }
+
+    private void query(float qMinX, float qMinY, float qMaxX, float qMaxY, int minIndexExclusive) {
+        nextStamp();
+        candidateCount = 0;
+        int cellX0 = cellOf(qMinX), cellX1 = cellOf(qMaxX);
+        int cellY0 = cellOf(qMinY), cellY1 = cellOf(qMaxY);
+        if(cellCount(cellX0, cellY0, cellX1, cellY1) > bucketHeads.length) {
+            //then it's cheaper to check every hashed object
+            for(int ind = minIndexExclusive+1 ; ind < objectCount ; ind++)
+                tryAddCandidate(ind, qMinX, qMinY, qMaxX, qMaxY, minIndexExclusive);
+        }
+        else {
+            for(int cellY = cellY0 ; cellY <= cellY1 ; cellY++) {
+                for(int cellX = cellX0 ; cellX <= cellX1 ; cellX++) {
+                    for(int entry = bucketHeads[bucketOf(cellX, cellY)] ;
+                        entry != NO_ENTRY ; entry = entryNext[entry]) {
+                        if(entryCellX[entry] == cellX && entryCellY[entry] == cellY)
+                            tryAddCandidate(entryObject[entry],
+                                    qMinX, qMinY, qMaxX, qMaxY, minIndexExclusive);
+                    }
+                }
+            }
+        }
+        for(int i = 0 ; i < oversizedCount ; i++)
+            tryAddCandidate(oversizedObjects[i], qMinX, qMinY, qMaxX, qMaxY, minIndexExclusive);
+        Arrays.sort(candidates, 0, candidateCount);
+    }
+
+    private void tryAddCandidate(int ind, float qMinX, float qMinY, float qMaxX, float qMaxY,
+                                 int minIndexExclusive) {
+        if(ind <= minIndexExclusive || queryStamps[ind] == currentStamp)
+            return;
+        queryStamps[ind] = currentStamp;
+        if(minX[ind] <= qMaxX && qMinX <= maxX[ind] && minY[ind] <= qMaxY && qMinY <= maxY[ind])
+            candidates[candidateCount++] = ind;
+    }
+
+    private void addEntry(int cellX, int cellY, int objectIndex) {
+        if(entryCount == entryNext.length) {
+            int capacity = Math.max(MIN_BUCKETS, 2*entryCount);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+            entryObject = Arrays.copyOf(entryObject, capacity);
+            entryCellX = Arrays.copyOf(entryCellX, capacity);
+            entryCellY = Arrays.copyOf(entryCellY, capacity);
+        }
+        int bucket = bucketOf(cellX, cellY);
+        entryCellX[entryCount] = cellX;
+        entryCellY[entryCount] = cellY;
+        entryObject[entryCount] = objectIndex;
+        entryNext[entryCount] = bucketHeads[bucket];
+        bucketHeads[bucket] = entryCount++;
+    }
+
+    private void nextStamp() {
+        if(currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(queryStamps, 0);
+            currentStamp = 0;
+        }
+        currentStamp++;
+    }
+
+    private int cellOf(float coordinate) {
+        double cell = Math.floor(coordinate / cellSize);
+        return (int)Math.max(-MAX_CELL, Math.min(MAX_CELL, cell));
+    }
+
+    private int bucketOf(int cellX, int cellY) {
+        int hash = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA77;
+        hash ^= hash >>> 16;
+        return hash & (bucketHeads.length - 1);
+    }
+
+    private static long cellCount(int cellX0, int cellY0, int cellX1, int cellY1) {
+        return ((long)cellX1 - cellX0 + 1) * ((long)cellY1 - cellY0 + 1);
+    }
+}
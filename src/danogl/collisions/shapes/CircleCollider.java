@@ -0,0 +1,101 @@
+package danogl.collisions.shapes;
+
+import danogl.collisions.Collider;
+import danogl.collisions.ColliderTypes;
+import danogl.util.Vector2;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A circle collider. The center is supplied in object-coordinates; the radius is a fraction
+ * of the object's smaller dimension, so the circle stays round when the object is not square.
+ * Collisions of circles are detected by {@link ShapePairCollisionHandler}, which should be
+ * registered using {@link danogl.collisions.GameObjectCollection#registerPairCollisionHandler}.
+ * @author Dan Nirel
+ */
+public class CircleCollider implements Collider {
+    public static final String CIRCLE_COLLIDER_TYPE = "Circle";
+    public static final int CIRCLE_COLLIDER_TYPE_ID = ColliderTypes.idOf(CIRCLE_COLLIDER_TYPE);
+    private float centerX, centerY, radius;
+
+    /**
+     * Create a circle inscribed in the object.
+     */
+    public CircleCollider() {
+        this(0.5f, 0.5f, 0.5f);
+    }
+
+    /**
+     * Create a new circle collider.
+     * @param objectSpaceCenterX the center's x-coordinate, in object-coordinates
+     * @param objectSpaceCenterY the center's y-coordinate, in object-coordinates
+     * @param radius the radius, as a fraction of the object's smaller dimension
+     */
+    public CircleCollider(float objectSpaceCenterX, float objectSpaceCenterY, float radius) {
+        this.centerX = objectSpaceCenterX;
+        this.centerY = objectSpaceCenterY;
+        this.radius = radius;
+    }
+
+    @Override
+    public String colliderType() {
+        return CIRCLE_COLLIDER_TYPE;
+    }
+
+    @Override
+    public int colliderTypeId() {
+        return CIRCLE_COLLIDER_TYPE_ID;
+    }
+
+    /**
+     * Whether the point is in the circle, for a square object.
+     */
+    @Override
+    public boolean containsPoint(Vector2 point) {
+        return containsPoint(point, Vector2.ONES);
+    }
+
+    @Override
+    public boolean containsPoint(Vector2 point, Vector2 dimensions) {
+        float dx = (point.x() - centerX) * dimensions.x();
+        float dy = (point.y() - centerY) * dimensions.y();
+        float worldRadius = worldRadius(dimensions.x(), dimensions.y());
+        return dx*dx + dy*dy <= worldRadius*worldRadius;
+    }
+
+    /**
+     * The rectangle bounding the circle, for a square object.
+     */
+    @Override
+    public void boundingRectangle(Rectangle2D.Float container) {
+        boundingRectangle(Vector2.ONES, container);
+    }
+
+    @Override
+    public void boundingRectangle(Vector2 dimensions, Rectangle2D.Float container) {
+        float worldRadius = worldRadius(dimensions.x(), dimensions.y());
+        float radiusX = worldRadius / dimensions.x(), radiusY = worldRadius / dimensions.y();
+        container.setRect(centerX - radiusX, centerY - radiusY, 2*radiusX, 2*radiusY);
+    }
+
+    public float getCenterX() { return centerX; }
+
+    public float getCenterY() { return centerY; }
+
+    public float getRadius() { return radius; }
+
+    /**
+     * package-private. Writes the circle of an object with the given corner and dimensions
+     * (in world-coordinates) as a shape of {@link ShapeMath}.
+     */
+    void worldShape(Vector2 topLeftCorner, Vector2 dimensions, float[] shapes, int shape) {
+        ShapeMath.setCircle(shapes, shape,
+                topLeftCorner.x() + centerX*dimensions.x(),
+                topLeftCorner.y() + centerY*dimensions.y(),
+                worldRadius(dimensions.x(), dimensions.y()));
+    }
+
+    private float worldRadius(float width, float height) {
+        return radius * Math.min(Math.abs(width), Math.abs(height));
+    }
+}
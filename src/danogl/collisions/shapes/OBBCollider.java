@@ -0,0 +1,126 @@
+package danogl.collisions.shapes;
+
+import danogl.collisions.Collider;
+import danogl.collisions.ColliderTypes;
+import danogl.util.Vector2;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * An oriented bounding-box collider: a rectangle rotated about its center.
+ * The center and the half-dimensions are supplied in object-coordinates; the rotation
+ * is applied in world-coordinates, so the box keeps its proportions at any angle.
+ * Collisions of oriented boxes are detected by {@link ShapePairCollisionHandler}, which should be
+ * registered using {@link danogl.collisions.GameObjectCollection#registerPairCollisionHandler}.
+ * @author Dan Nirel
+ */
+public class OBBCollider implements Collider {
+    public static final String OBB_COLLIDER_TYPE = "OBB";
+    public static final int OBB_COLLIDER_TYPE_ID = ColliderTypes.idOf(OBB_COLLIDER_TYPE);
+    private float centerX, centerY, halfWidth, halfHeight;
+    private float angle;
+    //the direction of the box's first axis
+    private float axisX = 1, axisY = 0;
+
+    /**
+     * Create a box covering the entire object, rotated by the given angle.
+     * @param degreesCounterclockwise the rotation about the object's center, in degrees
+     */
+    public OBBCollider(float degreesCounterclockwise) {
+        this(0.5f, 0.5f, 0.5f, 0.5f, degreesCounterclockwise);
+    }
+
+    /**
+     * Create a new oriented box collider.
+     * @param objectSpaceCenterX the center's x-coordinate, in object-coordinates
+     * @param objectSpaceCenterY the center's y-coordinate, in object-coordinates
+     * @param objectSpaceHalfWidth half the width of the box, in object-coordinates
+     * @param objectSpaceHalfHeight half the height of the box, in object-coordinates
+     * @param degreesCounterclockwise the rotation about the box's center, in degrees
+     */
+    public OBBCollider(float objectSpaceCenterX, float objectSpaceCenterY,
+                       float objectSpaceHalfWidth, float objectSpaceHalfHeight,
+                       float degreesCounterclockwise) {
+        this.centerX = objectSpaceCenterX;
+        this.centerY = objectSpaceCenterY;
+        this.halfWidth = objectSpaceHalfWidth;
+        this.halfHeight = objectSpaceHalfHeight;
+        setAngle(degreesCounterclockwise);
+    }
+
+    @Override
+    public String colliderType() {
+        return OBB_COLLIDER_TYPE;
+    }
+
+    @Override
+    public int colliderTypeId() {
+        return OBB_COLLIDER_TYPE_ID;
+    }
+
+    /**
+     * Returns the rotation of the box, in degrees counterclockwise.
+     */
+    public float getAngle() {
+        return angle;
+    }
+
+    /**
+     * Rotates the box about its center.
+     * @param degreesCounterclockwise the rotation, in degrees, as in {@link Vector2#rotated(float)}
+     */
+    public void setAngle(float degreesCounterclockwise) {
+        angle = degreesCounterclockwise;
+        axisX = (float)Math.cos(Math.toRadians(-degreesCounterclockwise));
+        axisY = (float)Math.sin(Math.toRadians(-degreesCounterclockwise));
+    }
+
+    /**
+     * Whether the point is in the box, for a square object.
+     */
+    @Override
+    public boolean containsPoint(Vector2 point) {
+        return containsPoint(point, Vector2.ONES);
+    }
+
+    @Override
+    public boolean containsPoint(Vector2 point, Vector2 dimensions) {
+        float dx = (point.x() - centerX) * dimensions.x();
+        float dy = (point.y() - centerY) * dimensions.y();
+        float u = dx*axisX + dy*axisY;
+        float v = -dx*axisY + dy*axisX;
+        return Math.abs(u) <= Math.abs(halfWidth*dimensions.x())
+                && Math.abs(v) <= Math.abs(halfHeight*dimensions.y());
+    }
+
+    /**
+     * The rectangle bounding the box, for a square object.
+     */
+    @Override
+    public void boundingRectangle(Rectangle2D.Float container) {
+        boundingRectangle(Vector2.ONES, container);
+    }
+
+    @Override
+    public void boundingRectangle(Vector2 dimensions, Rectangle2D.Float container) {
+        float extentX = Math.abs(halfWidth*dimensions.x()), extentY = Math.abs(halfHeight*dimensions.y());
+        float worldHalfWidth = extentX*Math.abs(axisX) + extentY*Math.abs(axisY);
+        float worldHalfHeight = extentX*Math.abs(axisY) + extentY*Math.abs(axisX);
+        float boundsHalfWidth = worldHalfWidth / dimensions.x();
+        float boundsHalfHeight = worldHalfHeight / dimensions.y();
+        container.setRect(centerX - boundsHalfWidth, centerY - boundsHalfHeight,
+                2*boundsHalfWidth, 2*boundsHalfHeight);
+    }
+
+    /**
+     * package-private. Writes the box of an object with the given corner and dimensions
+     * (in world-coordinates) as a shape of {@link ShapeMath}.
+     */
+    void worldShape(Vector2 topLeftCorner, Vector2 dimensions, float[] shapes, int shape) {
+        ShapeMath.setBox(shapes, shape,
+                topLeftCorner.x() + centerX*dimensions.x(),
+                topLeftCorner.y() + centerY*dimensions.y(),
+                Math.abs(halfWidth*dimensions.x()), Math.abs(halfHeight*dimensions.y()),
+                axisX, axisY);
+    }
+}
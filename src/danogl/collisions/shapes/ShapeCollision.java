@@ -0,0 +1,78 @@
+package danogl.collisions.shapes;
+
+import danogl.collisions.Collision;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+/**
+ * Encapsulates the collision info for a single GameObject whose
+ * collider is a circle or a box, colliding with another such object.
+ * @author Dan Nirel
+ */
+class ShapeCollision implements Collision {
+    private final ShapePairCollisionData pairCollisionData;
+    private final int myIndex;
+    private final MutableVector2 normal = new MutableVector2(), collisionPoint = new MutableVector2(),
+            penetrationArea = new MutableVector2(), relativeVelocity = new MutableVector2();
+    private boolean alreadyComputedRelativeVelocityThisFrame = false;
+
+    public ShapeCollision(ShapePairCollisionData pairCollisionData, int myIndex) {
+        this.pairCollisionData = pairCollisionData;
+        this.myIndex = myIndex;
+    }
+
+    @Override
+    public void onFrameStart() {
+        alreadyComputedRelativeVelocityThisFrame = false;
+    }
+
+    @Override
+    public Vector2 getNormal() {
+        pairCollisionData.update();
+        //the normal of the pair points towards the first object
+        float sign = myIndex == 0 ? 1 : -1;
+        normal.setXY(sign*pairCollisionData.result(ShapeMath.NORMAL_X),
+                sign*pairCollisionData.result(ShapeMath.NORMAL_Y));
+        return normal;
+    }
+
+    @Override
+    public Vector2 getCollisionPoint() {
+        pairCollisionData.update();
+        collisionPoint.setXY(
+                pairCollisionData.result(ShapeMath.POINT_X),
+                pairCollisionData.result(ShapeMath.POINT_Y));
+        return collisionPoint;
+    }
+
+    /**
+     * The width and height of the overlap of the bounds of the two shapes.
+     */
+    @Override
+    public Vector2 getPenetrationArea() {
+        pairCollisionData.update();
+        penetrationArea.setXY(
+                pairCollisionData.penetrationWidth(),
+                pairCollisionData.penetrationHeight());
+        return penetrationArea;
+    }
+
+    @Override
+    public Vector2 getRelativeVelocity() {
+        if(alreadyComputedRelativeVelocityThisFrame)
+            return relativeVelocity;
+        alreadyComputedRelativeVelocityThisFrame = true;
+
+        var otherCollision = (ShapeCollision) pairCollisionData.getCollision(1-myIndex);
+        if(otherCollision.alreadyComputedRelativeVelocityThisFrame) {
+            //then just invert that of the other collision object
+            relativeVelocity.setXY(otherCollision.relativeVelocity);
+            return relativeVelocity.selfMult(-1);
+        }
+
+        relativeVelocity.setXY(
+                pairCollisionData.getGameObject(myIndex).getVelocity());
+        return relativeVelocity.selfSubtract(
+                pairCollisionData.getGameObject(1-myIndex).getVelocity());
+    }
+}
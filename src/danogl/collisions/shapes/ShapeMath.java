@@ -0,0 +1,197 @@
+package danogl.collisions.shapes;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * package-private. The intersection tests of circles and oriented boxes, in world-coordinates.
+ * The tests only use primitive floats: a shape is a run of {@link #SHAPE_SIZE} floats in an array
+ * (so that many shapes can be packed in one array), and a test writes its result into
+ * a run of {@link #RESULT_SIZE} floats. The tests allocate nothing and use no state,
+ * so they can be used from several threads at once.
+ * A circle is stored as a box whose extents are both the radius.
+ * @author Dan Nirel
+ */
+final class ShapeMath {
+    //the layout of a shape: its center, half its width and height along its axes,
+    //and the direction of its first axis (the second axis is perpendicular, (-AXIS_Y, AXIS_X))
+    static final int CENTER_X = 0, CENTER_Y = 1, EXTENT_X = 2, EXTENT_Y = 3, AXIS_X = 4, AXIS_Y = 5;
+    static final int SHAPE_SIZE = 6;
+    //the layout of a result: the unit normal, which points from the second shape towards the first,
+    //the depth of the penetration along it, and an approximation of the point of contact
+    static final int NORMAL_X = 0, NORMAL_Y = 1, DEPTH = 2, POINT_X = 3, POINT_Y = 4;
+    static final int RESULT_SIZE = 5;
+
+    private ShapeMath() { }
+
+    static void setCircle(float[] shapes, int shape, float centerX, float centerY, float radius) {
+        setBox(shapes, shape, centerX, centerY, radius, radius, 1, 0);
+    }
+
+    static void setBox(float[] shapes, int shape, float centerX, float centerY,
+                       float extentX, float extentY, float axisX, float axisY) {
+        shapes[shape + CENTER_X] = centerX;
+        shapes[shape + CENTER_Y] = centerY;
+        shapes[shape + EXTENT_X] = extentX;
+        shapes[shape + EXTENT_Y] = extentY;
+        shapes[shape + AXIS_X] = axisX;
+        shapes[shape + AXIS_Y] = axisY;
+    }
+
+    /**
+     * Updates the container to the axis-aligned rectangle bounding a shape.
+     */
+    static void bounds(float[] shapes, int shape, Rectangle2D.Float container) {
+        float extentX = shapes[shape + EXTENT_X], extentY = shapes[shape + EXTENT_Y];
+        float axisX = Math.abs(shapes[shape + AXIS_X]), axisY = Math.abs(shapes[shape + AXIS_Y]);
+        float halfWidth = extentX*axisX + extentY*axisY;
+        float halfHeight = extentX*axisY + extentY*axisX;
+        container.setRect(shapes[shape + CENTER_X] - halfWidth, shapes[shape + CENTER_Y] - halfHeight,
+                2*halfWidth, 2*halfHeight);
+    }
+
+    /**
+     * Tests two circles for intersection. Circles which only touch do not intersect.
+     * @return whether the circles intersect; the result is only written if they do.
+     */
+    static boolean circleCircle(float[] shapes, int circle1, int circle2, float[] results, int result) {
+        float radius1 = shapes[circle1 + EXTENT_X], radius2 = shapes[circle2 + EXTENT_X];
+        float dx = shapes[circle1 + CENTER_X] - shapes[circle2 + CENTER_X];
+        float dy = shapes[circle1 + CENTER_Y] - shapes[circle2 + CENTER_Y];
+        float radiiSum = radius1 + radius2;
+        float distanceSquared = dx*dx + dy*dy;
+        if(distanceSquared >= radiiSum*radiiSum)
+            return false;
+        float distance = (float)Math.sqrt(distanceSquared);
+        float normalX = 0, normalY = -1; //for concentric circles
+        if(distance > 0) {
+            normalX = dx / distance;
+            normalY = dy / distance;
+        }
+        float depth = radiiSum - distance;
+        float fromCenter2 = radius2 - 0.5f*depth;
+        write(results, result, normalX, normalY, depth,
+                shapes[circle2 + CENTER_X] + normalX*fromCenter2,
+                shapes[circle2 + CENTER_Y] + normalY*fromCenter2);
+        return true;
+    }
+
+    /**
+     * Tests a circle (the first shape) and a box for intersection.
+     * @return whether they intersect; the result is only written if they do.
+     */
+    static boolean circleBox(float[] shapes, int circle, int box, float[] results, int result) {
+        float radius = shapes[circle + EXTENT_X];
+        float extentX = shapes[box + EXTENT_X], extentY = shapes[box + EXTENT_Y];
+        float axisX = shapes[box + AXIS_X], axisY = shapes[box + AXIS_Y];
+        //the circle's center in the box's axes
+        float dx = shapes[circle + CENTER_X] - shapes[box + CENTER_X];
+        float dy = shapes[circle + CENTER_Y] - shapes[box + CENTER_Y];
+        float u = dx*axisX + dy*axisY;
+        float v = -dx*axisY + dy*axisX;
+        //the nearest point of the box
+        float nearestU = Math.max(-extentX, Math.min(extentX, u));
+        float nearestV = Math.max(-extentY, Math.min(extentY, v));
+
+        float normalU, normalV, depth;
+        if(nearestU != u || nearestV != v) {
+            //the center is outside the box
+            float du = u - nearestU, dv = v - nearestV;
+            float distanceSquared = du*du + dv*dv;
+            if(distanceSquared >= radius*radius)
+                return false;
+            float distance = (float)Math.sqrt(distanceSquared);
+            normalU = du / distance;
+            normalV = dv / distance;
+            depth = radius - distance;
+        }
+        else {
+            //the center is inside the box: push it out through the nearest side
+            float signU = u < 0 ? -1 : 1, signV = v < 0 ? -1 : 1;
+            float toSideU = extentX - Math.abs(u), toSideV = extentY - Math.abs(v);
+            if(toSideU < toSideV) {
+                normalU = signU;
+                normalV = 0;
+                depth = toSideU + radius;
+                nearestU = signU*extentX;
+            }
+            else {
+                normalU = 0;
+                normalV = signV;
+                depth = toSideV + radius;
+                nearestV = signV*extentY;
+            }
+        }
+        write(results, result,
+                normalU*axisX - normalV*axisY, normalU*axisY + normalV*axisX, depth,
+                shapes[box + CENTER_X] + nearestU*axisX - nearestV*axisY,
+                shapes[box + CENTER_Y] + nearestU*axisY + nearestV*axisX);
+        return true;
+    }
+
+    /**
+     * Tests two boxes for intersection, using the separating axis theorem: the boxes intersect
+     * unless their projections on one of their four axes are apart. The normal is the axis
+     * on which the projections overlap the least.
+     * @return whether the boxes intersect; the result is only written if they do.
+     */
+    static boolean boxBox(float[] shapes, int box1, int box2, float[] results, int result) {
+        float dx = shapes[box1 + CENTER_X] - shapes[box2 + CENTER_X];
+        float dy = shapes[box1 + CENTER_Y] - shapes[box2 + CENTER_Y];
+        float minOverlap = Float.POSITIVE_INFINITY, normalX = 0, normalY = 0;
+        for(int axis = 0 ; axis < 4 ; axis++) {
+            int box = axis < 2 ? box1 : box2;
+            float axisX = shapes[box + AXIS_X], axisY = shapes[box + AXIS_Y];
+            if((axis & 1) == 1) {
+                //the perpendicular axis
+                float temp = axisX;
+                axisX = -axisY;
+                axisY = temp;
+            }
+            float distance = dx*axisX + dy*axisY;
+            float overlap = projectedExtent(shapes, box1, axisX, axisY)
+                    + projectedExtent(shapes, box2, axisX, axisY) - Math.abs(distance);
+            if(overlap <= 0)
+                return false;
+            if(overlap < minOverlap) {
+                minOverlap = overlap;
+                float sign = distance < 0 ? -1 : 1;
+                normalX = sign*axisX;
+                normalY = sign*axisY;
+            }
+        }
+        //the corner of box 1 deepest inside box 2, moved halfway out
+        float axisX = shapes[box1 + AXIS_X], axisY = shapes[box1 + AXIS_Y];
+        float alongU = normalX*axisX + normalY*axisY;
+        float alongV = -normalX*axisY + normalY*axisX;
+        float cornerU = (alongU > 0 ? -1 : 1) * shapes[box1 + EXTENT_X];
+        float cornerV = (alongV > 0 ? -1 : 1) * shapes[box1 + EXTENT_Y];
+        write(results, result, normalX, normalY, minOverlap,
+                shapes[box1 + CENTER_X] + cornerU*axisX - cornerV*axisY + 0.5f*minOverlap*normalX,
+                shapes[box1 + CENTER_Y] + cornerU*axisY + cornerV*axisX + 0.5f*minOverlap*normalY);
+        return true;
+    }
+
+    /**
+     * Reverses the normal of a result, for when the shapes were tested in reverse order.
+     */
+    static void flipNormal(float[] results, int result) {
+        results[result + NORMAL_X] = -results[result + NORMAL_X];
+        results[result + NORMAL_Y] = -results[result + NORMAL_Y];
+    }
+
+    //half the length of the projection of a box on a unit axis
+    private static float projectedExtent(float[] shapes, int box, float axisX, float axisY) {
+        float boxAxisX = shapes[box + AXIS_X], boxAxisY = shapes[box + AXIS_Y];
+        return shapes[box + EXTENT_X] * Math.abs(axisX*boxAxisX + axisY*boxAxisY)
+                + shapes[box + EXTENT_Y] * Math.abs(-axisX*boxAxisY + axisY*boxAxisX);
+    }
+
+    private static void write(float[] results, int result, float normalX, float normalY,
+                              float depth, float pointX, float pointY) {
+        results[result + NORMAL_X] = normalX;
+        results[result + NORMAL_Y] = normalY;
+        results[result + DEPTH] = depth;
+        results[result + POINT_X] = pointX;
+        results[result + POINT_Y] = pointY;
+    }
+}
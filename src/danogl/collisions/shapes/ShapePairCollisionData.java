@@ -0,0 +1,123 @@
+package danogl.collisions.shapes;
+
+import danogl.GameObject;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.AABB.AABBCollider;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * package-private.
+ * Responsible for computing and caching the collision data for a pair
+ * of GameObjects whose colliders are circles or boxes.
+ * @author Dan Nirel
+ */
+class ShapePairCollisionData extends PairCollisionData {
+    private static final int SHAPE1 = 0, SHAPE2 = ShapeMath.SHAPE_SIZE;
+
+    private final float[] shapes = new float[2*ShapeMath.SHAPE_SIZE];
+    private final float[] result = new float[ShapeMath.RESULT_SIZE];
+    private final Rectangle2D.Float bounds1 = new Rectangle2D.Float();
+    private final Rectangle2D.Float bounds2 = new Rectangle2D.Float();
+    private float penetrationWidth, penetrationHeight;
+    private boolean isIntersecting = false;
+    private boolean alreadyComputedThisFrame = false;
+
+    public ShapePairCollisionData(GameObject go1, GameObject go2) {
+        super(go1, go2);
+        collision1 = new ShapeCollision(this, 0);
+        collision2 = new ShapeCollision(this, 1);
+    }
+
+    @Override
+    public void onFrameStart() {
+        alreadyComputedThisFrame = false;
+        collision1.onFrameStart();
+        collision2.onFrameStart();
+    }
+
+    public void update() {
+        if(alreadyComputedThisFrame)
+            return;
+        alreadyComputedThisFrame = true;
+        isIntersecting = intersect(go1(), go2(), shapes, result);
+        if(!isIntersecting)
+            return;
+        //the extent of the overlap of the shapes' bounds
+        ShapeMath.bounds(shapes, SHAPE1, bounds1);
+        ShapeMath.bounds(shapes, SHAPE2, bounds2);
+        penetrationWidth = Math.min(bounds1.x + bounds1.width, bounds2.x + bounds2.width)
+                - Math.max(bounds1.x, bounds2.x);
+        penetrationHeight = Math.min(bounds1.y + bounds1.height, bounds2.y + bounds2.height)
+                - Math.max(bounds1.y, bounds2.y);
+    }
+
+    @Override
+    public boolean areColliding() {
+        update();
+        return isIntersecting;
+    }
+
+    /**
+     * The result of the intersection test (see {@link ShapeMath#RESULT_SIZE}).
+     * The normal points towards the first object.
+     */
+    float result(int field) {
+        return result[field];
+    }
+
+    float penetrationWidth() {
+        return penetrationWidth;
+    }
+
+    float penetrationHeight() {
+        return penetrationHeight;
+    }
+
+    /**
+     * Tests the colliders of two objects for intersection, without allocating.
+     * @param shapes a container for the shapes of both objects
+     * @param result a container for the result; the normal points towards go1.
+     * @return whether the colliders intersect.
+     */
+    static boolean intersect(GameObject go1, GameObject go2, float[] shapes, float[] result) {
+        boolean isCircle1 = worldShape(go1, shapes, SHAPE1);
+        boolean isCircle2 = worldShape(go2, shapes, SHAPE2);
+        if(isCircle1 && isCircle2)
+            return ShapeMath.circleCircle(shapes, SHAPE1, SHAPE2, result, 0);
+        if(isCircle1)
+            return ShapeMath.circleBox(shapes, SHAPE1, SHAPE2, result, 0);
+        if(isCircle2) {
+            if(!ShapeMath.circleBox(shapes, SHAPE2, SHAPE1, result, 0))
+                return false;
+            ShapeMath.flipNormal(result, 0);
+            return true;
+        }
+        return ShapeMath.boxBox(shapes, SHAPE1, SHAPE2, result, 0);
+    }
+
+    /**
+     * Writes the world-space shape of an object's collider.
+     * @return true if the shape is a circle, false if it's a box.
+     */
+    private static boolean worldShape(GameObject go, float[] shapes, int shape) {
+        var collider = go.physics().collider();
+        var corner = go.getTopLeftCorner();
+        var dimensions = go.getDimensions();
+        if(collider instanceof CircleCollider) {
+            ((CircleCollider)collider).worldShape(corner, dimensions, shapes, shape);
+            return true;
+        }
+        if(collider instanceof OBBCollider) {
+            ((OBBCollider)collider).worldShape(corner, dimensions, shapes, shape);
+            return false;
+        }
+        var rect = ((AABBCollider)collider).getRectangle();
+        ShapeMath.setBox(shapes, shape,
+                corner.x() + (rect.x + 0.5f*rect.width)*dimensions.x(),
+                corner.y() + (rect.y + 0.5f*rect.height)*dimensions.y(),
+                Math.abs(0.5f*rect.width*dimensions.x()), Math.abs(0.5f*rect.height*dimensions.y()),
+                1, 0);
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package danogl.collisions.shapes;
+
+import danogl.GameObject;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+import danogl.collisions.AABB.AABBCollider;
+
+/**
+ * Responsible for computing and caching the intersection data of two GameObjects
+ * whose colliders are circles or oriented boxes ({@link CircleCollider}, {@link OBBCollider}),
+ * or one of which is an axis-aligned box ({@link AABBCollider}).
+ * Is not responsible for resolving the collision.
+ * Register it using {@link danogl.collisions.GameObjectCollection#registerPairCollisionHandler}.
+ * @author Dan Nirel
+ */
+public class ShapePairCollisionHandler implements PairCollisionHandler {
+    private final float[] shapes = new float[2*ShapeMath.SHAPE_SIZE];
+    private final float[] result = new float[ShapeMath.RESULT_SIZE];
+
+    @Override
+    public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) {
+        if(!supportsPair(go1, go2))
+            return null;
+
+        if(!ShapePairCollisionData.intersect(go1, go2, shapes, result))
+            return null;
+
+        return new ShapePairCollisionData(go1, go2);
+    }
+
+    @Override
+    public boolean supportsPair(GameObject go1, GameObject go2) {
+        int type1 = go1.physics().collider().colliderTypeId();
+        int type2 = go2.physics().collider().colliderTypeId();
+        //pairs of axis-aligned boxes are left to AABBPairCollisionHandler
+        return isSupported(type1) && isSupported(type2)
+                && (type1 != AABBCollider.AABB_COLLIDER_TYPE_ID || type2 != AABBCollider.AABB_COLLIDER_TYPE_ID);
+    }
+
+    private static boolean isSupported(int colliderTypeId) {
+        return colliderTypeId == CircleCollider.CIRCLE_COLLIDER_TYPE_ID
+                || colliderTypeId == OBBCollider.OBB_COLLIDER_TYPE_ID
+                || colliderTypeId == AABBCollider.AABB_COLLIDER_TYPE_ID;
+    }
+}
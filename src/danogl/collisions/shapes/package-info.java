@@ -0,0 +1,6 @@
+/**
+ * Implementation of collisions between circles and oriented boxes,
+ * and between them and axis-aligned boxes
+ * @author Dan Nirel
+ */
+package danogl.collisions.shapes;
@@ -19,6 +19,7 @@ public class GameObjectPhysics {
     private Collider collider;
     private Vector2 dirToPrevent = null;
     private float mass = 1f;
+    private boolean isFastMover = false;
 
     /**
      * Returns the object's collider
@@ -67,4 +68,26 @@ public class GameObjectPhysics {
     public void setMass(float mass) {
         this.mass = mass;
     }
+
+    /**
+     * Is the object checked for collisions along its path, and not only at its position
+     * at the end of every frame.
+     * @see #setFastMover(boolean)
+     */
+    public boolean isFastMover() {
+        return isFastMover;
+    }
+
+    /**
+     * Sets whether the object is checked for collisions along its path (continuous collision
+     * detection). An object which moves more than its own size in a single frame
+     * may otherwise pass through thin objects without colliding with them.
+     * When a fast mover would have passed through an object, it is moved back to the point
+     * of impact, so that the collision occurs as usual. Only the motion due to its velocity
+     * is checked (see {@link danogl.components.Transform#getLastDisplacement()}).
+     * The check is relatively expensive, so it's off by default.
+     */
+    public void setFastMover(boolean isFastMover) {
+        this.isFastMover = isFastMover;
+    }
 }
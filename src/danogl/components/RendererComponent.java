@@ -1,6 +1,7 @@
 package danogl.components;
 
 import danogl.GameObject;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -48,6 +49,19 @@ public class RendererComponent implements Component {
                 isFlippedHorizontally, isFlippedVertically, opaqueness);
     }
 
+    /**
+     * Adds the GameObject to a snapshot of the frame, to be rendered later
+     * (possibly on another thread)
+     * @param snapshot the snapshot of the frame
+     * @param topLeftCorner the GameObject's position
+     * @param dimensions the GameObject's dimensions
+     */
+    public void capture(RenderSnapshot snapshot, Vector2 topLeftCorner, Vector2 dimensions) {
+        snapshot.add(renderable, topLeftCorner.x(), topLeftCorner.y(), dimensions.x(), dimensions.y(),
+                renderableDegreesCounterclockwise,
+                isFlippedHorizontally, isFlippedVertically, opaqueness);
+    }
+
     /**
      * @return The current Renderable.
      */
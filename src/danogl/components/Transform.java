@@ -3,26 +3,46 @@ package danogl.components;
 import danogl.util.MutableVector2;
 import danogl.util.Vector2;
 
+import java.util.Arrays;
+
 /**
  * Encapsulates some properties of a GameObject that are related
- * to its transform from object-space to world-space
+ * to its transform from object-space to world-space.
+ * <p>The transform of an object in a collection whose transform store is enabled
+ * (see {@link danogl.collisions.GameObjectCollection#setTransformStoreEnabled(boolean)})
+ * is a view of its slot in the store: the values are kept in the store's arrays,
+ * the vectors returned by the getters are refreshed from them once after every
+ * integration of the store, and the store rather than {@link #update(float)}
+ * applies the velocity.</p>
  * @author Dan Nirel
  */
 public class Transform implements Component {
+    private static final Runnable[] NO_LISTENERS = new Runnable[0];
+
     private MutableVector2 topLeftCorner;
     private MutableVector2 dimensions;
     private MutableVector2 velocity = new MutableVector2(Vector2.ZERO);
     private MutableVector2 velocityToApply = new MutableVector2(Vector2.ZERO);
     private MutableVector2 acceleration = new MutableVector2(Vector2.ZERO);
+    private MutableVector2 lastDisplacement = new MutableVector2(Vector2.ZERO);
+    private MutableVector2 previousTopLeftCorner;
+    private MutableVector2 interpolatedTopLeftCorner = new MutableVector2();
     private boolean isAccelerationEnabled = true;
-
-    private static MutableVector2 freeComputationVector = new MutableVector2();
+    private int version = 0;
+    private boolean isDirty = false;
+    private Runnable[] onBecameDirty = NO_LISTENERS;
+    //non-null while the values are kept in a store rather than in the vectors above
+    private TransformStore store = null;
+    private int storeSlot;
+    //the integration of the store (see TransformStore.integrationCount) the vectors reflect
+    private int syncedIntegration;
 
     /**
      * Construct a new Transform. Normally called by the GameObject's constructor.
      */
     public Transform(Vector2 topLeftCorner, Vector2 dimensions) {
         this.topLeftCorner = new MutableVector2(topLeftCorner);
+        this.previousTopLeftCorner = new MutableVector2(topLeftCorner);
         this.dimensions = new MutableVector2(dimensions);
     }
 
@@ -30,6 +50,7 @@ public class Transform implements Component {
      * Returns the GameObject's top-left corner
      */
     public Vector2 getTopLeftCorner() {
+        syncFromStore();
         return topLeftCorner;
     }
 
@@ -37,14 +58,21 @@ public class Transform implements Component {
      * Set the position of the object's top-left corner
      */
     public void setTopLeftCorner(Vector2 topLeftCorner) {
-        this.topLeftCorner.setXY(topLeftCorner);
+        setTopLeftCorner(topLeftCorner.x(), topLeftCorner.y());
     }
 
     /**
      * Set the position of the object's top-left corner
      */
     public void setTopLeftCorner(float x, float y) {
-        this.topLeftCorner.setXY(x, y);
+        if(x == getTopLeftCorner().x() && y == topLeftCorner.y())
+            return;
+        topLeftCorner.setXY(x, y);
+        if(store != null) {
+            store.x[storeSlot] = x;
+            store.y[storeSlot] = y;
+        }
+        onChanged();
     }
 
     /**
@@ -68,15 +96,113 @@ public class Transform implements Component {
             throw new IllegalArgumentException(
                     "Dimensions must be non-negative. "+
                             "To flip image, see setIsflippedHorizontally()/setIsflippedVertically()");
-        var oldCenter = getCenter();
+        if(x == getDimensions().x() && y == dimensions.y())
+            return;
+        float centerX = getCenterX();
+        float centerY = getCenterY();
         this.dimensions.setXY(x, y);
-        setCenter(oldCenter);
+        if(store != null) {
+            store.width[storeSlot] = x;
+            store.height[storeSlot] = y;
+        }
+        onChanged();
+        setCenter(centerX, centerY);
+    }
+
+    /**
+     * Returns a number which changes whenever the object's position or dimensions change,
+     * so that cached computations based on them can tell whether they are outdated.
+     * The number does not change when a setter is called with the current values.
+     */
+    public int getVersion() {
+        notifyPendingMove();
+        return version;
+    }
+
+    /**
+     * Has the object's position or dimensions changed since the last call to
+     * {@link #clearDirty()} (or since the transform was created).
+     */
+    public boolean isDirty() {
+        notifyPendingMove();
+        return isDirty;
+    }
+
+    /**
+     * Marks the transform as unchanged, until its position or dimensions change again.
+     * Unlike the version, which only increases, this flag is meant to be reset every frame.
+     */
+    public void clearDirty() {
+        isDirty = false;
+    }
+
+    /**
+     * Engine-internal; should not be called by game code.
+     * Adds a callback invoked whenever the transform becomes dirty (see {@link #isDirty()}).
+     * Used by every GameObjectCollection containing the object to keep track of
+     * the objects that changed.
+     */
+    public void addOnBecameDirty(Runnable listener) {
+        onBecameDirty = Arrays.copyOf(onBecameDirty, onBecameDirty.length + 1);
+        onBecameDirty[onBecameDirty.length - 1] = listener;
+    }
+
+    /**
+     * Engine-internal; should not be called by game code.
+     * Removes a callback added by {@link #addOnBecameDirty(Runnable)}.
+     */
+    public void removeOnBecameDirty(Runnable listener) {
+        for(int i = 0 ; i < onBecameDirty.length ; i++) {
+            if(onBecameDirty[i] != listener)
+                continue;
+            var listeners = new Runnable[onBecameDirty.length - 1];
+            System.arraycopy(onBecameDirty, 0, listeners, 0, i);
+            System.arraycopy(onBecameDirty, i + 1, listeners, i, listeners.length - i);
+            onBecameDirty = listeners.length == 0 ? NO_LISTENERS : listeners;
+            return;
+        }
+    }
+
+    /**
+     * Returns how much the last invocation of {@link #update(float)} moved the object,
+     * by applying its velocity. Changes of the position by the setters are not included.
+     */
+    public Vector2 getLastDisplacement() {
+        syncFromStore();
+        return lastDisplacement;
+    }
+
+    /**
+     * Returns the position of the object's top-left corner at the start of
+     * the last invocation of {@link #update(float)}.
+     */
+    public Vector2 getPreviousTopLeftCorner() {
+        syncFromStore();
+        return previousTopLeftCorner;
+    }
+
+    /**
+     * Returns a position between the top-left corner at the start of the last update
+     * and the current one, for rendering between two fixed-step updates.
+     * The returned vector is reused by subsequent calls.
+     * @param alpha 0 for the previous position, 1 for the current one.
+     */
+    public Vector2 getInterpolatedTopLeftCorner(float alpha) {
+        var current = getTopLeftCorner();
+        if(alpha >= 1)
+            return current;
+        var previous = getPreviousTopLeftCorner();
+        interpolatedTopLeftCorner.setXY(
+                previous.x() + alpha*(current.x() - previous.x()),
+                previous.y() + alpha*(current.y() - previous.y()));
+        return interpolatedTopLeftCorner;
     }
 
     /**
      * Returns the object's velocity
      */
     public Vector2 getVelocity() {
+        syncFromStore();
         return velocity;
     }
 
@@ -84,42 +210,43 @@ public class Transform implements Component {
      * Set the object's velocity
      */
     public void setVelocity(Vector2 velocity) {
-        this.velocity.setXY(velocity);
+        setVelocity(velocity.x(), velocity.y());
     }
 
     /**
      * Set the x-coordinate of the left side of the object
      */
     public void setTopLeftCornerX(float x) {
-        topLeftCorner.setX(x);
+        setTopLeftCorner(x, getTopLeftCorner().y());
     }
 
     /**
      * Set the y-coordinate of the top side of the object
      */
     public void setTopLeftCornerY(float y) {
-        topLeftCorner.setY(y);
+        setTopLeftCorner(getTopLeftCorner().x(), y);
     }
 
     /**
      * Set the object's width. After the change, the object will maintain
      * its center.
      */
-    public void setDimensionsX(float x) { setDimensions(x, dimensions.y()); }
+    public void setDimensionsX(float x) { setDimensions(x, getDimensions().y()); }
 
     /**
      * Set the object's height. After the change, the object will maintain
      * its center.
      */
     public void setDimensionsY(float y) {
-        setDimensions(dimensions.x(), y);
+        setDimensions(getDimensions().x(), y);
     }
 
     /**
      * Set the object's velocity
      */
     public void setVelocity(float x, float y) {
-        this.velocity.setXY(x, y);
+        setVelocityX(x);
+        setVelocityY(y);
     }
 
     /**
@@ -127,6 +254,8 @@ public class Transform implements Component {
      */
     public void setVelocityX(float x) {
         velocity.setX(x);
+        if(store != null)
+            store.velocityX[storeSlot] = x;
     }
 
     /**
@@ -134,23 +263,38 @@ public class Transform implements Component {
      */
     public void setVelocityY(float y) {
         velocity.setY(y);
+        if(store != null)
+            store.velocityY[storeSlot] = y;
     }
 
     /**
-     * Returns the object's center
+     * Returns the object's center, as a new vector.
+     * To avoid creating a vector, see {@link #getCenterX()} and {@link #getCenterY()}.
      */
     public Vector2 getCenter() {
-        return new MutableVector2(getDimensions())
-                .selfMult(0.5f).selfAdd(getTopLeftCorner());
+        return new Vector2(getCenterX(), getCenterY());
+    }
+
+    /**
+     * Returns the x-coordinate of the object's center
+     */
+    public float getCenterX() {
+        return getTopLeftCorner().x() + 0.5f*getDimensions().x();
+    }
+
+    /**
+     * Returns the y-coordinate of the object's center
+     */
+    public float getCenterY() {
+        return getTopLeftCorner().y() + 0.5f*getDimensions().y();
     }
 
     /**
      * Reposition the object by its center
      */
     public void setCenter(Vector2 center) {
-        freeComputationVector.setXY(dimensions);
-        freeComputationVector.selfMult(-0.5f).selfAdd(center);
-        topLeftCorner.setXY(freeComputationVector);
+        var dimensions = getDimensions();
+        setTopLeftCorner(center.x() - 0.5f*dimensions.x(), center.y() - 0.5f*dimensions.y());
     }
 
     /**
@@ -165,14 +309,14 @@ public class Transform implements Component {
      * Reposition the center's x-position
      */
     public void setCenterX(float x) {
-        topLeftCorner.setX(x-0.5f*dimensions.x());
+        setTopLeftCornerX(x-0.5f*getDimensions().x());
     }
 
     /**
      * Reposition the center's y-position
      */
     public void setCenterY(float y) {
-        topLeftCorner.setY(y-0.5f*dimensions.y());
+        setTopLeftCornerY(y-0.5f*getDimensions().y());
     }
 
     /**
@@ -186,13 +330,14 @@ public class Transform implements Component {
      * Sets the object's acceleration
      */
     public void setAcceleration(Vector2 acceleration) {
-        this.acceleration.setXY(acceleration);
+        setAcceleration(acceleration.x(), acceleration.y());
     }
 
     /**
      * Sets the object's acceleration
      */    public void setAcceleration(float x, float y) {
-        this.acceleration.setXY(x, y);
+        setAccelerationX(x);
+        setAccelerationY(y);
     }
 
     /**
@@ -200,6 +345,8 @@ public class Transform implements Component {
      */
     public void setAccelerationX(float x) {
         this.acceleration.setX(x);
+        if(store != null)
+            store.accelerationX[storeSlot] = x;
     }
 
     /**
@@ -207,10 +354,21 @@ public class Transform implements Component {
      */
     public void setAccelerationY(float y) {
         this.acceleration.setY(y);
+        if(store != null)
+            store.accelerationY[storeSlot] = y;
     }
 
+    /**
+     * Applies the velocity and the acceleration. Does nothing while the transform
+     * is a view of a store, whose {@link TransformStore#integrateAll(float)} applies them instead.
+     */
     @Override
     public void update(float deltaTime) {
+        if(store != null) {
+            notifyPendingMove();
+            return;
+        }
+        previousTopLeftCorner.setXY(topLeftCorner);
         if(!acceleration.equals(Vector2.ZERO) && isAccelerationEnabled) {
             velocity.setXY(
                     velocity.x() + acceleration.x() * deltaTime,
@@ -218,9 +376,12 @@ public class Transform implements Component {
             //using "midpoint"/"improved Euler" integration
             velocityToApply.selfAdd(getVelocity()).selfMult(0.5f);
         }
+        lastDisplacement.setXY(Vector2.ZERO);
         if(!velocityToApply.isZero()) {
             velocityToApply.selfMult(deltaTime);
-            topLeftCorner.selfAdd(velocityToApply);
+            lastDisplacement.setXY(velocityToApply);
+            setTopLeftCorner(topLeftCorner.x() + velocityToApply.x(),
+                    topLeftCorner.y() + velocityToApply.y());
         }
         velocityToApply.setXY(velocity);
     }
@@ -230,7 +391,9 @@ public class Transform implements Component {
      * if accelerating will cause the object to intersect with an object
      * it is set to not intersect with.
      */
-    public boolean isAccelerationEnabled() { return isAccelerationEnabled; }
+    public boolean isAccelerationEnabled() {
+        return store == null ? isAccelerationEnabled : store.isAccelerationEnabled[storeSlot];
+    }
 
     /**
      * Set whether the acceleration should be applied in this frame.
@@ -238,5 +401,86 @@ public class Transform implements Component {
      */
     public void setAccelerationEnabled(boolean accelerationEnabled) {
         isAccelerationEnabled = accelerationEnabled;
+        if(store != null)
+            store.isAccelerationEnabled[storeSlot] = accelerationEnabled;
+    }
+
+    /**
+     * package-private. Moves the values into a slot of a store (see {@link TransformStore#attach}).
+     */
+    void attachTo(TransformStore store, int slot) {
+        store.x[slot] = topLeftCorner.x();
+        store.y[slot] = topLeftCorner.y();
+        store.previousX[slot] = previousTopLeftCorner.x();
+        store.previousY[slot] = previousTopLeftCorner.y();
+        store.width[slot] = dimensions.x();
+        store.height[slot] = dimensions.y();
+        store.velocityX[slot] = velocity.x();
+        store.velocityY[slot] = velocity.y();
+        store.velocityToApplyX[slot] = velocityToApply.x();
+        store.velocityToApplyY[slot] = velocityToApply.y();
+        store.accelerationX[slot] = acceleration.x();
+        store.accelerationY[slot] = acceleration.y();
+        store.displacementX[slot] = lastDisplacement.x();
+        store.displacementY[slot] = lastDisplacement.y();
+        store.isAccelerationEnabled[slot] = isAccelerationEnabled;
+        this.store = store;
+        storeSlot = slot;
+        syncedIntegration = store.integrationCount;
+    }
+
+    /**
+     * package-private. Is the transform attached to a store
+     */
+    boolean isInStore() {
+        return store != null;
+    }
+
+    /**
+     * package-private. Moves the values back from the store the transform is attached to.
+     */
+    void detachFromStore() {
+        notifyPendingMove();
+        syncFromStore();
+        isAccelerationEnabled = isAccelerationEnabled();
+        store = null;
+    }
+
+    /**
+     * package-private. If the store moved the transform since it was last marked
+     * as changed, marks it now.
+     */
+    void notifyPendingMove() {
+        if(store == null || !store.isMovePending[storeSlot])
+            return;
+        store.isMovePending[storeSlot] = false;
+        store.pendingMoveCount--;
+        onChanged();
+    }
+
+    /**
+     * package-private. Copies the values the store's integration changed into the vectors,
+     * once per integration; the dimensions and acceleration are only changed by the setters,
+     * which write both. Until the next integration, the getters then only read.
+     */
+    void syncFromStore() {
+        if(store == null || syncedIntegration == store.integrationCount)
+            return;
+        syncedIntegration = store.integrationCount;
+        int slot = storeSlot;
+        topLeftCorner.setXY(store.x[slot], store.y[slot]);
+        previousTopLeftCorner.setXY(store.previousX[slot], store.previousY[slot]);
+        velocity.setXY(store.velocityX[slot], store.velocityY[slot]);
+        velocityToApply.setXY(store.velocityToApplyX[slot], store.velocityToApplyY[slot]);
+        lastDisplacement.setXY(store.displacementX[slot], store.displacementY[slot]);
+    }
+
+    private void onChanged() {
+        version++;
+        if(isDirty)
+            return;
+        isDirty = true;
+        for(var listener : onBecameDirty)
+            listener.run();
     }
 }
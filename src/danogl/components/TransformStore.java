@@ -0,0 +1,181 @@
+package danogl.components;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the data of many transforms in parallel arrays of floats (struct-of-arrays),
+ * indexed by the slot of their object (see {@link danogl.collisions.GameObjectCollection#slotOf(danogl.GameObject)}),
+ * rather than in separate vectors all over the heap.
+ * A transform attached to the store becomes a view of its slot: its getters and setters
+ * read and write the arrays. The velocities and accelerations of all the attached transforms
+ * are integrated in a single pass over the arrays (see {@link #integrateAll(float)}),
+ * which replaces the integration each transform does in its own update.
+ * To keep that pass within the arrays, the transforms it moved are only marked as changed
+ * (see {@link Transform#getVersion()}) when they are next updated or asked about it,
+ * or when {@link #notifyPendingMoves()} is invoked.
+ * <p>A transform is kept in one store at most: the transform of an object which is in
+ * several collections stays in the store of the first one that attached it.</p>
+ * <p>Normally used through
+ * {@link danogl.collisions.GameObjectCollection#setTransformStoreEnabled(boolean)}.</p>
+ * @author Dan Nirel
+ */
+public class TransformStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    //the transform attached to each slot, or null for a free slot
+    private Transform[] views = new Transform[INITIAL_CAPACITY];
+    //one past the highest slot ever attached
+    private int slotCount = 0;
+
+    //package-private: read and written by the attached transforms
+    float[] x = new float[INITIAL_CAPACITY], y = new float[INITIAL_CAPACITY];
+    float[] previousX = new float[INITIAL_CAPACITY], previousY = new float[INITIAL_CAPACITY];
+    float[] width = new float[INITIAL_CAPACITY], height = new float[INITIAL_CAPACITY];
+    float[] velocityX = new float[INITIAL_CAPACITY], velocityY = new float[INITIAL_CAPACITY];
+    //the velocity applied by the next integration (see Transform.update)
+    float[] velocityToApplyX = new float[INITIAL_CAPACITY];
+    float[] velocityToApplyY = new float[INITIAL_CAPACITY];
+    float[] accelerationX = new float[INITIAL_CAPACITY];
+    float[] accelerationY = new float[INITIAL_CAPACITY];
+    float[] displacementX = new float[INITIAL_CAPACITY];
+    float[] displacementY = new float[INITIAL_CAPACITY];
+    boolean[] isAccelerationEnabled = new boolean[INITIAL_CAPACITY];
+    //moved by integrateAll, but not yet marked as changed
+    boolean[] isMovePending = new boolean[INITIAL_CAPACITY];
+    int pendingMoveCount = 0;
+    //the number of integrations so far; the transforms refresh their vectors when it changes
+    int integrationCount = 0;
+
+    /**
+     * Engine-internal; should not be called by game code.
+     * Moves the data of a transform into a slot of the store; from now on,
+     * the transform is a view of that slot. A transform already kept in another store
+     * is left there, and the slot stays free.
+     * @param slot a slot which no other transform is attached to
+     * @return whether the transform was attached
+     */
+    public boolean attach(Transform transform, int slot) {
+        if(transform.isInStore())
+            return false;
+        if(slot >= views.length)
+            grow(Math.max(slot + 1, 2*views.length));
+        views[slot] = transform;
+        slotCount = Math.max(slotCount, slot + 1);
+        transform.attachTo(this, slot);
+        return true;
+    }
+
+    /**
+     * Engine-internal; should not be called by game code.
+     * Moves the data of the transform attached to a slot back into the transform,
+     * and frees the slot.
+     */
+    public void detach(int slot) {
+        if(slot >= slotCount || views[slot] == null)
+            return;
+        views[slot].detachFromStore();
+        views[slot] = null;
+    }
+
+    /**
+     * Engine-internal; should not be called by game code. Detaches all the transforms.
+     */
+    public void detachAll() {
+        for(int slot = 0 ; slot < slotCount ; slot++)
+            detach(slot);
+        slotCount = 0;
+    }
+
+    /**
+     * Marks the transforms moved by {@link #integrateAll(float)} as changed, if they
+     * were not already. Should be invoked before the changed transforms are looked up.
+     */
+    public void notifyPendingMoves() {
+        if(pendingMoveCount == 0)
+            return;
+        for(int slot = 0 ; slot < slotCount && pendingMoveCount > 0 ; slot++) {
+            if(isMovePending[slot])
+                views[slot].notifyPendingMove();
+        }
+    }
+
+    /**
+     * Engine-internal; should not be called by game code.
+     * Refreshes the vectors of a transform from the arrays of the store it's kept in, if any,
+     * so that until the next integration of that store its getters only read.
+     * Should be invoked before the transform is read on several threads at once.
+     */
+    public static void sync(Transform transform) {
+        transform.syncFromStore();
+    }
+
+    /**
+     * Is a transform attached to the slot
+     */
+    public boolean isAttached(int slot) {
+        return slot < slotCount && views[slot] != null;
+    }
+
+    /**
+     * Applies the velocity and acceleration of every attached transform, exactly as
+     * {@link Transform#update(float)} applies them to a transform that is not attached.
+     * Transforms which moved become dirty, as when they are moved by a setter, though not
+     * right away (see {@link #notifyPendingMoves()}).
+     * @param deltaTime the time, in seconds, since the last integration
+     */
+    public void integrateAll(float deltaTime) {
+        integrationCount++;
+        int count = slotCount;
+        System.arraycopy(x, 0, previousX, 0, count);
+        System.arraycopy(y, 0, previousY, 0, count);
+        for(int i = 0 ; i < count ; i++) {
+            if(views[i] == null)
+                continue;
+            if((accelerationX[i] != 0 || accelerationY[i] != 0) && isAccelerationEnabled[i]) {
+                velocityX[i] += accelerationX[i] * deltaTime;
+                velocityY[i] += accelerationY[i] * deltaTime;
+                //using "midpoint"/"improved Euler" integration
+                velocityToApplyX[i] = (velocityToApplyX[i] + velocityX[i]) * 0.5f;
+                velocityToApplyY[i] = (velocityToApplyY[i] + velocityY[i]) * 0.5f;
+            }
+            float dx = 0, dy = 0;
+            if(velocityToApplyX[i] != 0 || velocityToApplyY[i] != 0) {
+                dx = velocityToApplyX[i] * deltaTime;
+                dy = velocityToApplyY[i] * deltaTime;
+                float newX = x[i] + dx, newY = y[i] + dy;
+                if(newX != x[i] || newY != y[i]) {
+                    x[i] = newX;
+                    y[i] = newY;
+                    if(!isMovePending[i]) {
+                        isMovePending[i] = true;
+                        pendingMoveCount++;
+                    }
+                }
+            }
+            displacementX[i] = dx;
+            displacementY[i] = dy;
+            velocityToApplyX[i] = velocityX[i];
+            velocityToApplyY[i] = velocityY[i];
+        }
+    }
+
+    private void grow(int capacity) {
+        views = Arrays.copyOf(views, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        velocityToApplyX = Arrays.copyOf(velocityToApplyX, capacity);
+        velocityToApplyY = Arrays.copyOf(velocityToApplyY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        displacementX = Arrays.copyOf(displacementX, capacity);
+        displacementY = Arrays.copyOf(displacementY, capacity);
+        isAccelerationEnabled = Arrays.copyOf(isAccelerationEnabled, capacity);
+        isMovePending = Arrays.copyOf(isMovePending, capacity);
+    }
+}
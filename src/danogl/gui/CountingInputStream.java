@@ -0,0 +1,54 @@
+package danogl.gui;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * package-private. Counts the bytes read from a stream, for the asset load events
+ * (see {@link danogl.jfr.AssetLoadEvent}), without buffering them.
+ * @author Dan Nirel
+ */
+class CountingInputStream extends FilterInputStream {
+    private long count = 0;
+
+    CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * The number of bytes read or skipped so far
+     */
+    long count() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if(b != -1)
+            count++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if(n > 0)
+            count += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    //a reset would make the count depend on how much the reader peeked ahead
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package danogl.gui;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the game loop to a target framerate. Each frame has a deadline, a whole frame-period
+ * after the previous one's, and the loop waits for it by parking the thread and then
+ * yielding for the last stretch, which is more precise than sleeping whole milliseconds.
+ * Since deadlines are kept rather than per-frame delays, a frame that ends a bit late
+ * is made up for by the next one.
+ * <p>Frames that end after their deadline are counted as missed deadlines;
+ * see {@link #getMissedDeadlineCount()}.</p>
+ * @author Dan Nirel
+ */
+public class FramePacer {
+    //the final stretch before a deadline is spent yielding rather than parking,
+    //since parking might oversleep by this much
+    private static final long SPIN_NANOS = 1_000_000;
+
+    private long framePeriodNanos;
+    private long nextDeadline;
+    private boolean isStarted = false;
+    private long frameCount = 0;
+    private long missedDeadlineCount = 0;
+    private long maxLatenessNanos = 0;
+
+    /**
+     * package-private.
+     * @param targetFramerate frames per second
+     */
+    FramePacer(int targetFramerate) {
+        setTargetFramerate(targetFramerate);
+    }
+
+    /**
+     * package-private. Changes the target framerate; the next deadline is set
+     * a frame-period from the end of the current frame.
+     */
+    void setTargetFramerate(int targetFramerate) {
+        if(targetFramerate <= 0)
+            throw new IllegalArgumentException("targetFramerate must be positive");
+        framePeriodNanos = 1_000_000_000L / targetFramerate;
+        isStarted = false;
+    }
+
+    /**
+     * package-private. Starts pacing anew: the next deadline is a frame-period from now.
+     */
+    void start() {
+        nextDeadline = System.nanoTime() + framePeriodNanos;
+        isStarted = true;
+    }
+
+    /**
+     * package-private. Called at the end of a frame: waits for the frame's deadline,
+     * or counts it as missed if it already passed.
+     */
+    void waitForNextFrame() {
+        if(!isStarted) {
+            start();
+            return;
+        }
+        frameCount++;
+        long lateness = System.nanoTime() - nextDeadline;
+        if(lateness >= 0) {
+            missedDeadlineCount++;
+            maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+            //a frame late: start over rather than rushing through frames to catch up
+            if(lateness >= framePeriodNanos)
+                nextDeadline = System.nanoTime();
+            nextDeadline += framePeriodNanos;
+            //let the event thread run even when there's no time to spare
+            Thread.yield();
+            return;
+        }
+        long remaining;
+        while((remaining = nextDeadline - SPIN_NANOS - System.nanoTime()) > 0)
+            LockSupport.parkNanos(remaining);
+        while(System.nanoTime() < nextDeadline)
+            Thread.yield();
+        nextDeadline += framePeriodNanos;
+    }
+
+    /**
+     * The number of frames paced since the metrics were last reset
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * The number of frames, out of {@link #getFrameCount()}, that ended after their deadline.
+     * Missing many deadlines means that either the frames take too long (too many objects?
+     * an overly complex logic?), or the target framerate is too high for the hardware.
+     */
+    public long getMissedDeadlineCount() {
+        return missedDeadlineCount;
+    }
+
+    /**
+     * How late, in nanoseconds, the latest of the frames that missed their deadline was
+     */
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    /**
+     * The time between two deadlines, in nanoseconds
+     */
+    public long getFramePeriodNanos() {
+        return framePeriodNanos;
+    }
+
+    /**
+     * Zeroes the frame count and the missed deadlines metrics.
+     */
+    public void resetMetrics() {
+        frameCount = 0;
+        missedDeadlineCount = 0;
+        maxLatenessNanos = 0;
+    }
+}
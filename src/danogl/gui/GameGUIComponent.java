@@ -4,16 +4,19 @@ import danogl.GameManager;
 import danogl.GameObject;
 import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RenderSnapshot;
 import danogl.gui.rendering.Renderable;
+import danogl.jfr.FrameEvent;
+import danogl.util.FrameProfiler;
 import danogl.util.Vector2;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.util.ConcurrentModificationException;
+import java.util.concurrent.Exchanger;
 
 /**
  * The class depends on a GameManager it receives in the constructor:
@@ -24,29 +27,28 @@ import java.util.ConcurrentModificationException;
  */
 public class GameGUIComponent extends Canvas implements WindowController {
     private static final String LOADSCREEN_PATH = "danoglAssets/DanoGameLabLoading.png";
-    private static final int INITIAL_MIN_IDLE_TIME_IN_MILLIS = 3;
-    private static final int FPS_HITS_BEFORE_WARNING_USER = 100;
+    private static final int INITIAL_TARGET_FRAMERATE = 120;
     private static final float LOADSCREEN_FRAMES = 20;
-    //if the game is running an FPS less than 1/MAX_FRAME_TIME, it will be slowed down
-    private static final float MAX_FRAME_TIME = 0.1f;
 
-    private int targetFramerate = 120;
-    private int minIdleTimeInMillis = INITIAL_MIN_IDLE_TIME_IN_MILLIS;
+    private final FramePacer framePacer = new FramePacer(INITIAL_TARGET_FRAMERATE);
+    private final GameStepper stepper = new GameStepper(this);
     private JFrame window;
-    private float timescale = 1;
     private boolean isRunning = false;
     private GameManager gameManager;
-    private int fpsHits = 0;
     private Vector2 windowDimensions;
-    private boolean isPaused;
-    private int exitButton = KeyEvent.VK_ESCAPE;
-    private int pauseButton = -1;
     private GameObject loadScreen;
     private Renderable renderableCursor;
     private Vector2 cursorDimensions;
     private Vector2 cursorOffset;
     private KeyAdapterUserInputListener inputListener;
     private BufferStrategy bufferStrategy;
+    //null unless rendering is pipelined
+    private Thread renderThread;
+    private final Exchanger<RenderSnapshot> snapshotExchanger = new Exchanger<>();
+    //the snapshot being filled; the render thread draws the other one
+    private RenderSnapshot snapshot = new RenderSnapshot();
+    //set by the render thread when it failed to draw a frame, and stopped
+    private volatile RuntimeException renderFailure = null;
 
     public GameGUIComponent(
             GameManager gameManager,
@@ -92,7 +94,7 @@ public class GameGUIComponent extends Canvas implements WindowController {
     }
 
     public void runSingleGame() {
-        timescale = 1;
+        stepper.setTimeScale(1);
         inputListener = new KeyAdapterUserInputListener();
         addKeyListener(inputListener);
         addMouseListener(inputListener);
@@ -102,7 +104,7 @@ public class GameGUIComponent extends Canvas implements WindowController {
         setMouseCursor(
                 new OvalRenderable(Color.GRAY), cursorDimensions, cursorDimensions.mult(-.5f));
 
-        render();
+        render(1);
 
         gameManager.initializeGame(
                 new ImageReader(this),
@@ -111,24 +113,35 @@ public class GameGUIComponent extends Canvas implements WindowController {
         );
 
         //game loop
+        var profiler = gameManager.profiler();
         long timAtPrevFrameStart = System.nanoTime();
         isRunning = true;
+        framePacer.start();
         while(isRunning) {
+            profiler.restart(FrameProfiler.Phase.FRAME);
+            var frameEvent = new FrameEvent();
+            frameEvent.begin();
+            //the phases are only timed while a recording is running
+            boolean isRecordingFrame = frameEvent.isEnabled();
             long timeAtFrameStart = System.nanoTime();
             float deltaTime = (float)((timeAtFrameStart-timAtPrevFrameStart)/1_000_000_000D);
             timAtPrevFrameStart = timeAtFrameStart;
-            if(inputListener.wasKeyReleasedThisFrame(exitButton))
-                closeWindow();
-            if(inputListener.wasKeyReleasedThisFrame(pauseButton))
-                isPaused = !isPaused;
-            if(!isPaused)
-                gameManager.update(Math.min(MAX_FRAME_TIME, deltaTime * timescale));
-            inputListener.update(deltaTime);
-            render();
-            if(!isRunning)
-                continue;
-            long frameTime = System.nanoTime()-timeAtFrameStart;
-            idleTime(frameTime);
+            //input of frames without an update is kept for the next update
+            if(stepper.updateFrame(gameManager, inputListener, deltaTime, frameEvent))
+                inputListener.update(deltaTime);
+            long phaseStart = isRecordingFrame ? System.nanoTime() : 0;
+            render(stepper.interpolationAlpha());
+            if(isRecordingFrame)
+                frameEvent.renderDuration = System.nanoTime() - phaseStart;
+            if(isRunning) {
+                profiler.start(FrameProfiler.Phase.IDLE);
+                phaseStart = isRecordingFrame ? System.nanoTime() : 0;
+                framePacer.waitForNextFrame();
+                if(isRecordingFrame)
+                    frameEvent.idleDuration = System.nanoTime() - phaseStart;
+                profiler.stop(FrameProfiler.Phase.IDLE);
+            }
+            frameEvent.commit();
         }
         removeKeyListener(inputListener);
     }
@@ -157,8 +170,8 @@ public class GameGUIComponent extends Canvas implements WindowController {
         return res == 0;
     }
 
-    public double getTimeScale() { return timescale; }
-    public void setTimeScale(float value) { timescale = value; }
+    public double getTimeScale() { return stepper.getTimeScale(); }
+    public void setTimeScale(float value) { stepper.setTimeScale(value); }
 
     @Override
     public Vector2 getWindowDimensions() {
@@ -167,17 +180,46 @@ public class GameGUIComponent extends Canvas implements WindowController {
 
     @Override
     public void setTargetFramerate(int targetFramerate) {
-        this.targetFramerate = targetFramerate;
+        framePacer.setTargetFramerate(targetFramerate);
+    }
+
+    @Override
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    @Override
+    public void setFixedTimeStep(int ticksPerSecond, int maxSubsteps) {
+        stepper.setFixedTimeStep(ticksPerSecond, maxSubsteps);
+    }
+
+    @Override
+    public void setPipelinedRendering(boolean isPipelined) {
+        if(isPipelined == (renderThread != null))
+            return;
+        if(isPipelined) {
+            renderThread = new Thread(this::drawSnapshots, "danogl render thread");
+            renderThread.setDaemon(true);
+            renderThread.start();
+            return;
+        }
+        renderThread.interrupt();
+        try {
+            renderThread.join();
+        } catch (InterruptedException e) {
+            System.err.println("Failed to stop the render thread: " + e.getMessage());
+        }
+        renderThread = null;
     }
 
     @Override
     public void setPauseButton(int keyFromKeyEvent) {
-        pauseButton = keyFromKeyEvent;
+        stepper.setPauseButton(keyFromKeyEvent);
     }
 
     @Override
     public void setExitButton(int keyFromKeyEvent) {
-        exitButton = keyFromKeyEvent;
+        stepper.setExitButton(keyFromKeyEvent);
     }
 
     @Override
@@ -220,60 +262,117 @@ public class GameGUIComponent extends Canvas implements WindowController {
         setCursor(blankCursor);
     }
 
-    private void render() {
-        Graphics g = bufferStrategy.getDrawGraphics();
-        Graphics2D g2d = ((Graphics2D)g);
-
-        g2d.setBackground(Color.WHITE);
-        g2d.clearRect(0,0,(int)windowDimensions.x(),(int)windowDimensions.y());
-        g2d.setColor(Color.BLACK);
-
-        g2d.setRenderingHint(
-                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
+    private void render(float alpha) {
+        if(renderThread != null) {
+            publishSnapshot(alpha);
+            return;
+        }
+        Graphics2D g2d = beginFrame();
         if(gameManager != null && isRunning) {
-            gameManager.render(g2d);
+            gameManager.profiler().start(FrameProfiler.Phase.RENDER);
+            gameManager.render(g2d, alpha);
             if (renderableCursor != null) {
                 renderableCursor.render(
                         g2d,
                         inputListener.getMouseScreenPos().add(cursorOffset),
                         cursorDimensions);
             }
+            gameManager.profiler().stop(FrameProfiler.Phase.RENDER);
         }
         if(loadScreen != null) {
             loadScreen.render(g2d);
-            loadScreen.update(1);
-            if(loadScreen.renderer().getOpaqueness() <= 0)
-                loadScreen = null;
+            updateLoadScreen();
         }
-        g.dispose();
-        bufferStrategy.show(); // flip screen
+        gameManager.profiler().start(FrameProfiler.Phase.PRESENT);
+        showFrame(g2d);
+        gameManager.profiler().stop(FrameProfiler.Phase.PRESENT);
     }
 
-    private void idleTime(long frameTime) {
-        //in order to reach a frame rate of 100 for example, each
-        //frame should take 10 millis (1000/100=10).
-        //by now the frame already took frameTime (supplied in nanoseconds)
-        //so sleep the remainder. Painting, which is executed on a helper thread,
-        //is expected to run during this time.
-        double millisToSleep = 1000D/ targetFramerate - frameTime/1_000_000D;
-        millisToSleep = Math.max(millisToSleep, minIdleTimeInMillis);
-        if(millisToSleep == minIdleTimeInMillis) {
-            fpsHits++;
-            if(fpsHits == FPS_HITS_BEFORE_WARNING_USER) {
-                System.err.println("Warning: your frames are taking " +
-                    "too long to update, which means the target " +
-                    "frame-rate ("+ targetFramerate +") cannot be reached. " +
-                    "If your frame-rate is low, then either your update pass " +
-                    "is taking too long (too many objects? an overly complex " +
-                    "logic?), or the target frame-rate is set too high for the " +
-                    "hardware.");
+    /**
+     * Fills a snapshot of the frame and hands it to the render thread, in exchange for
+     * the snapshot it has finished drawing.
+     */
+    private void publishSnapshot(float alpha) {
+        snapshot.clear();
+        if(gameManager != null && isRunning) {
+            gameManager.profiler().start(FrameProfiler.Phase.RENDER);
+            gameManager.captureRenderSnapshot(snapshot, alpha);
+            if (renderableCursor != null) {
+                var mouseScreenPos = inputListener.getMouseScreenPos();
+                snapshot.add(renderableCursor,
+                        mouseScreenPos.x() + cursorOffset.x(), mouseScreenPos.y() + cursorOffset.y(),
+                        cursorDimensions.x(), cursorDimensions.y(),
+                        0, false, false, 1);
             }
+            gameManager.profiler().stop(FrameProfiler.Phase.RENDER);
+        }
+        if(loadScreen != null) {
+            loadScreen.captureRenderState(snapshot, null, 1);
+            updateLoadScreen();
+        }
+        try {
+            snapshot = snapshotExchanger.exchange(snapshot);
+        } catch (InterruptedException e) {
+            System.err.println("Failed to hand a frame to the render thread: " + e.getMessage());
         }
+        var failure = renderFailure;
+        if(failure != null) {
+            renderFailure = null;
+            System.err.println("The render thread failed to draw a frame, " +
+                    "so frames are now drawn on the game's thread: " + failure);
+            setPipelinedRendering(false);
+        }
+    }
+
+    //the body of the render thread
+    private void drawSnapshots() {
+        var snapshotToDraw = new RenderSnapshot();
         try {
-            Thread.sleep((int)millisToSleep);
+            while(true) {
+                snapshotToDraw = snapshotExchanger.exchange(snapshotToDraw);
+                gameManager.profiler().start(FrameProfiler.Phase.PRESENT);
+                Graphics2D g2d = null;
+                try {
+                    g2d = beginFrame();
+                    snapshotToDraw.render(g2d);
+                    showFrame(g2d);
+                } catch (RuntimeException e) {
+                    if(g2d != null)
+                        g2d.dispose();
+                    //a last exchange, so the game's thread is not left waiting for this one;
+                    //it then finds the failure and falls back to drawing the frames itself
+                    renderFailure = e;
+                    snapshotExchanger.exchange(snapshotToDraw);
+                    return;
+                } finally {
+                    gameManager.profiler().stop(FrameProfiler.Phase.PRESENT);
+                }
+            }
         } catch (InterruptedException e) {
-            System.err.println("Failed to sleep: " + e.getMessage());
+            //rendering is no longer pipelined
         }
     }
+
+    private Graphics2D beginFrame() {
+        Graphics2D g2d = (Graphics2D)bufferStrategy.getDrawGraphics();
+
+        g2d.setBackground(Color.WHITE);
+        g2d.clearRect(0,0,(int)windowDimensions.x(),(int)windowDimensions.y());
+        g2d.setColor(Color.BLACK);
+
+        g2d.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
+
+    private void showFrame(Graphics2D g2d) {
+        g2d.dispose();
+        bufferStrategy.show(); // flip screen
+    }
+
+    private void updateLoadScreen() {
+        loadScreen.update(1);
+        if(loadScreen.renderer().getOpaqueness() <= 0)
+            loadScreen = null;
+    }
 }
@@ -0,0 +1,130 @@
+package danogl.gui;
+
+import danogl.GameManager;
+import danogl.jfr.FrameEvent;
+import danogl.util.FrameProfiler;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * package-private. The part of a frame that is the same whether the game runs in a window
+ * or headless: checks the exit and pause keys, then updates the game, either once
+ * with the time since the previous frame, or in fixed time-steps
+ * (see {@link WindowController#setFixedTimeStep(int, int)}).
+ * The window controllers delegate the related settings to it.
+ * @author Dan Nirel
+ */
+class GameStepper {
+    //if the game is running an FPS less than 1/MAX_FRAME_TIME, it will be slowed down
+    private static final float MAX_FRAME_TIME = 0.1f;
+
+    private final WindowController windowController;
+    private float timescale = 1;
+    private boolean isPaused = false;
+    //0 means the game is updated once per frame
+    private float fixedTimeStep = 0;
+    private int maxSubsteps;
+    //game time that passed and is yet to be simulated by fixed time-steps
+    private float accumulatedTime = 0;
+    //were the keys released this frame already checked for exiting and pausing
+    private boolean isInputHandled = false;
+    private int exitButton = KeyEvent.VK_ESCAPE;
+    private int pauseButton = -1;
+
+    /**
+     * @param windowController closed when the exit button is released
+     */
+    GameStepper(WindowController windowController) {
+        this.windowController = windowController;
+    }
+
+    /**
+     * Updates the game for a frame, unless it's paused. Before the update,
+     * the exit and pause buttons are checked (once per update, since the input
+     * of a frame without an update is kept for the next one).
+     * @param deltaTime the time, in seconds, since the previous frame, before the time-scale
+     * @param frameEvent the frame's event; the duration of the update is set in it if it's recorded
+     * @return whether the game was updated; if so, the input listener
+     * should move on to the next frame's input.
+     */
+    boolean updateFrame(GameManager gameManager, UserInputListener inputListener,
+                        float deltaTime, FrameEvent frameEvent) {
+        if(!isInputHandled) {
+            if(inputListener.wasKeyReleasedThisFrame(exitButton))
+                windowController.closeWindow();
+            if(inputListener.wasKeyReleasedThisFrame(pauseButton))
+                isPaused = !isPaused;
+            isInputHandled = true;
+        }
+        boolean hasUpdated = true;
+        var profiler = gameManager.profiler();
+        profiler.start(FrameProfiler.Phase.UPDATE);
+        boolean isRecordingFrame = frameEvent.isEnabled();
+        long updateStart = isRecordingFrame ? System.nanoTime() : 0;
+        if(!isPaused) {
+            if(fixedTimeStep > 0)
+                hasUpdated = runFixedTimeSteps(gameManager, deltaTime) > 0;
+            else
+                gameManager.update(Math.min(MAX_FRAME_TIME, deltaTime * timescale));
+        }
+        if(isRecordingFrame)
+            frameEvent.updateDuration = System.nanoTime() - updateStart;
+        profiler.stop(FrameProfiler.Phase.UPDATE);
+        if(hasUpdated)
+            isInputHandled = false;
+        return hasUpdated;
+    }
+
+    /**
+     * How far the frame is between the previous update (0) and the last one (1);
+     * always 1 unless the game is updated in fixed time-steps.
+     */
+    float interpolationAlpha() {
+        return fixedTimeStep > 0 ? accumulatedTime / fixedTimeStep : 1;
+    }
+
+    /**
+     * Runs as many fixed time-steps as fit in the accumulated game time,
+     * up to maxSubsteps.
+     * @return the number of updates that ran
+     */
+    private int runFixedTimeSteps(GameManager gameManager, float deltaTime) {
+        accumulatedTime += Math.min(MAX_FRAME_TIME, deltaTime * timescale);
+        int substeps = 0;
+        while(accumulatedTime >= fixedTimeStep && substeps < maxSubsteps) {
+            gameManager.update(fixedTimeStep);
+            accumulatedTime -= fixedTimeStep;
+            substeps++;
+        }
+        //can't keep up: drop the time that is left, rather than falling further behind
+        if(substeps == maxSubsteps)
+            accumulatedTime = Math.min(accumulatedTime, fixedTimeStep);
+        return substeps;
+    }
+
+    /** See {@link WindowController#getTimeScale()} */
+    float getTimeScale() { return timescale; }
+
+    /** See {@link WindowController#setTimeScale(float)} */
+    void setTimeScale(float value) { timescale = value; }
+
+    /** See {@link WindowController#setFixedTimeStep(int, int)} */
+    void setFixedTimeStep(int ticksPerSecond, int maxSubsteps) {
+        if(ticksPerSecond < 0 || (ticksPerSecond > 0 && maxSubsteps < 1))
+            throw new IllegalArgumentException(
+                    "ticksPerSecond must be non-negative and maxSubsteps positive");
+        fixedTimeStep = ticksPerSecond == 0 ? 0 : 1f/ticksPerSecond;
+        this.maxSubsteps = maxSubsteps;
+        accumulatedTime = 0;
+    }
+
+    /** See {@link WindowController#setPauseButton(int)} */
+    void setPauseButton(int keyFromKeyEvent) {
+        pauseButton = keyFromKeyEvent;
+    }
+
+    /** See {@link WindowController#setExitButton(int)} */
+    void setExitButton(int keyFromKeyEvent) {
+        exitButton = keyFromKeyEvent;
+    }
+}
@@ -0,0 +1,253 @@
+package danogl.gui;
+
+import danogl.GameManager;
+import danogl.gui.rendering.RenderSnapshot;
+import danogl.gui.rendering.Renderable;
+import danogl.jfr.FrameEvent;
+import danogl.util.FrameProfiler;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Runs a game without a window, for simulating or profiling it on machines without a display.
+ * The game goes through the same cycle as in a window (initializeGame, then update and render
+ * every frame), but the clock is simulated: every frame advances the game's time by exactly
+ * one frame-period of the target framerate, and frames run as fast as the CPU allows.
+ * The user input follows a script (see {@link ScriptedUserInputListener}), frames are rendered
+ * into an offscreen image or not at all, and sounds are silent.
+ * <p>Dialogs are not shown: a message box is only recorded
+ * (see {@link #getLastMessage()}), and a yes/no dialog is answered with a preset answer
+ * (see {@link #setYesNoDialogAnswer(boolean)}).</p>
+ * <p>Frames are not paced, so there is no frame pacer (see {@link #getFramePacer()}).
+ * Pipelined rendering is supported, but the snapshots are drawn on the thread that runs
+ * the frames (see {@link #setPipelinedRendering(boolean)}).</p>
+ * @author Dan Nirel
+ */
+public class HeadlessGameRunner implements WindowController {
+    private static final int INITIAL_TARGET_FRAMERATE = 120;
+
+    private final GameManager gameManager;
+    private final Vector2 windowDimensions;
+    private final ScriptedUserInputListener inputListener;
+    private final BufferedImage frameImage;
+    private final GameStepper stepper = new GameStepper(this);
+    private int targetFramerate = INITIAL_TARGET_FRAMERATE;
+    //null unless rendering is pipelined
+    private RenderSnapshot snapshot = null;
+    private Renderable renderableCursor;
+    private Vector2 cursorDimensions;
+    private boolean isInitialized = false;
+    private boolean isClosed = false;
+    private boolean yesNoDialogAnswer = false;
+    private String lastMessage;
+    private long frameIndex = 0;
+    private double simulatedTime = 0;
+
+    /**
+     * Constructs a runner for a game. The game is initialized when the first frame is run.
+     * @param gameManager the game
+     * @param windowDimensions the dimensions, in pixels, of the simulated window
+     * @param inputListener the scripted input of the user
+     * @param shouldRender whether to render the frames into an offscreen image
+     *                     (see {@link #getFrameImage()}), or to skip rendering altogether
+     */
+    public HeadlessGameRunner(GameManager gameManager, Vector2 windowDimensions,
+                              ScriptedUserInputListener inputListener, boolean shouldRender) {
+        this.gameManager = gameManager;
+        this.windowDimensions = windowDimensions;
+        this.inputListener = inputListener;
+        frameImage = shouldRender ? new BufferedImage(
+                (int)windowDimensions.x(), (int)windowDimensions.y(), BufferedImage.TYPE_INT_RGB) : null;
+    }
+
+    /**
+     * Runs frames until the given number of frames ran, or the window was closed.
+     * @return the number of frames that ran
+     */
+    public int runFrames(int frameCount) {
+        int framesRan = 0;
+        while(framesRan < frameCount && !isClosed) {
+            runFrame();
+            framesRan++;
+        }
+        return framesRan;
+    }
+
+    private void runFrame() {
+        if(!isInitialized) {
+            isInitialized = true;
+            stepper.setTimeScale(1);
+            gameManager.initializeGame(
+                    new ImageReader(this), new SoundReader(this, true), inputListener, this);
+        }
+        var profiler = gameManager.profiler();
+        profiler.restart(FrameProfiler.Phase.FRAME);
+        var frameEvent = new FrameEvent();
+        frameEvent.begin();
+        boolean isRecordingFrame = frameEvent.isEnabled();
+        float deltaTime = 1f/targetFramerate;
+        inputListener.beginFrame(frameIndex);
+        //as in a window, input of frames without an update is kept for the next update
+        if(stepper.updateFrame(gameManager, inputListener, deltaTime, frameEvent))
+            inputListener.update(deltaTime);
+        if(frameImage != null && isInitialized) {
+            profiler.start(FrameProfiler.Phase.RENDER);
+            long phaseStart = isRecordingFrame ? System.nanoTime() : 0;
+            render(stepper.interpolationAlpha());
+            if(isRecordingFrame)
+                frameEvent.renderDuration = System.nanoTime() - phaseStart;
+            profiler.stop(FrameProfiler.Phase.RENDER);
+        }
+        frameEvent.commit();
+        frameIndex++;
+        simulatedTime += deltaTime;
+    }
+
+    private void render(float alpha) {
+        Graphics2D g2d = frameImage.createGraphics();
+        g2d.setBackground(Color.WHITE);
+        g2d.clearRect(0, 0, frameImage.getWidth(), frameImage.getHeight());
+        g2d.setColor(Color.BLACK);
+        g2d.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if(snapshot != null) {
+            snapshot.clear();
+            gameManager.captureRenderSnapshot(snapshot, alpha);
+            snapshot.render(g2d);
+        }
+        else {
+            gameManager.render(g2d, alpha);
+        }
+        g2d.dispose();
+    }
+
+    /**
+     * The image the last frame was rendered into, or null if rendering is skipped
+     */
+    public BufferedImage getFrameImage() {
+        return frameImage;
+    }
+
+    /**
+     * The number of frames that ran so far, which is also the index of the next frame
+     */
+    public long getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * The simulated time that passed, in seconds
+     */
+    public double getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    /**
+     * Was the window closed, by the game or by the exit button. No more frames are run.
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Sets the answer to every yes/no dialog the game opens. By default the answer is no.
+     */
+    public void setYesNoDialogAnswer(boolean answer) {
+        yesNoDialogAnswer = answer;
+    }
+
+    /**
+     * The message of the last message box the game opened, or null if it opened none
+     */
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    @Override
+    public void closeWindow() {
+        isClosed = true;
+    }
+
+    @Override
+    public void resetGame() {
+        isInitialized = false;
+    }
+
+    @Override
+    public void showMessageBox(String msg) {
+        lastMessage = msg;
+    }
+
+    @Override
+    public boolean openYesNoDialog(String msg) {
+        lastMessage = msg;
+        return yesNoDialogAnswer;
+    }
+
+    @Override
+    public double getTimeScale() { return stepper.getTimeScale(); }
+
+    @Override
+    public void setTimeScale(float value) { stepper.setTimeScale(value); }
+
+    @Override
+    public Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    /**
+     * Sets the framerate whose frame-period every frame advances the simulated clock by.
+     * Frames are not paced: they run as fast as possible.
+     */
+    @Override
+    public void setTargetFramerate(int targetFramerate) {
+        if(targetFramerate <= 0)
+            throw new IllegalArgumentException("targetFramerate must be positive");
+        this.targetFramerate = targetFramerate;
+    }
+
+    @Override
+    public void setFixedTimeStep(int ticksPerSecond, int maxSubsteps) {
+        stepper.setFixedTimeStep(ticksPerSecond, maxSubsteps);
+    }
+
+    /**
+     * As in a window, while rendering is pipelined the game's objects are added to a
+     * snapshot (see {@link GameManager#captureRenderSnapshot}) rather than rendered
+     * by GameManager.render. Since frames are not paced, there is no idle time to draw
+     * in, so the snapshot is drawn right away, on the thread that runs the frames;
+     * this keeps the frame image complete when {@link #runFrames(int)} returns.
+     */
+    @Override
+    public void setPipelinedRendering(boolean isPipelined) {
+        snapshot = isPipelined ? new RenderSnapshot() : null;
+    }
+
+    @Override
+    public void setPauseButton(int keyFromKeyEvent) {
+        stepper.setPauseButton(keyFromKeyEvent);
+    }
+
+    @Override
+    public void setExitButton(int keyFromKeyEvent) {
+        stepper.setExitButton(keyFromKeyEvent);
+    }
+
+    @Override
+    public void setMouseCursor(Renderable renderable, Vector2 dimensions, Vector2 offset) {
+        renderableCursor = renderable;
+        cursorDimensions = dimensions;
+    }
+
+    @Override
+    public Renderable getMouseCursor() {
+        return renderableCursor;
+    }
+
+    @Override
+    public Vector2 getMouseCursorDimensions() {
+        return cursorDimensions;
+    }
+}
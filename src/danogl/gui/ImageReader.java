@@ -1,6 +1,7 @@
 package danogl.gui;
 
 import danogl.gui.rendering.ImageRenderable;
+import danogl.jfr.AssetLoadEvent;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
@@ -33,21 +34,35 @@ public class ImageReader {
      * @return An ImageRenderable of the desired image.
      */
     public ImageRenderable readImage(String path, boolean isTopLeftPixelTransparency) {
+        var event = new AssetLoadEvent();
+        event.begin();
         BufferedImage im = null;
+        CountingInputStream counter = null;
         ResourceReader resReader = new ResourceReader();
         try(var stream = resReader.readResource(path)) {
-            im = ImageIO.read(stream);
+            counter = new CountingInputStream(stream);
+            im = ImageIO.read(counter);
         }
         catch(IOException ioe) {
             windowController.showMessageBox(
                     String.format("Failed to open image '%s': %s", path, ioe.getMessage()));
             windowController.closeWindow();
         }
+        if(event.shouldCommit()) {
+            event.path = path;
+            event.kind = AssetLoadEvent.IMAGE;
+            event.bytes = counter == null ? 0 : counter.count();
+            event.commit();
+        }
         Image finalImage = isTopLeftPixelTransparency ? addTransparency(im) : im;
         return new ImageRenderable(finalImage);
     }
 
-    private Image addTransparency(BufferedImage im) {
+    /**
+     * package-private. Makes every pixel that has the color of the top-left one transparent.
+     * @return a copy of the image with the transparency
+     */
+    Image addTransparency(BufferedImage im) {
         BufferedImage transparentImage =
                 new BufferedImage(im.getWidth(),im.getHeight(),BufferedImage.TYPE_INT_ARGB);
         int transparentColor = im.getRGB(0,0);
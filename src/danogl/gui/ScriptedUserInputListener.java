@@ -0,0 +1,153 @@
+package danogl.gui;
+
+import danogl.gui.mouse.MouseButton;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * User input that follows a script rather than the keyboard and mouse,
+ * for running a game without a window (see {@link HeadlessGameRunner}).
+ * Every action is scheduled for a frame, and takes effect right before that frame's update,
+ * as if the user performed it between the previous frame and that one.
+ * Frames are numbered from 0, the first frame the runner runs, and the numbering
+ * goes on when the game is reset.
+ * The scheduling methods return this object, so a script can be written as a chain of calls.
+ * @author Dan Nirel
+ */
+public class ScriptedUserInputListener implements UserInputListener {
+    private final TreeMap<Long, List<Runnable>> script = new TreeMap<>();
+    private final Set<Integer> pressedKeys = new HashSet<>();
+    private final Set<Integer> releasedKeys = new HashSet<>();
+    private final MutableVector2 mousePos = new MutableVector2();
+    private final EnumSet<MouseButton> pressedMouseButtons = EnumSet.noneOf(MouseButton.class);
+    private final EnumSet<MouseButton> clickedMouseButtons = EnumSet.noneOf(MouseButton.class);
+    private double mouseWheelClicksThisFrame;
+
+    /**
+     * Presses a key at the given frame; it stays pressed until released.
+     * @param keyFromKeyEvent A constant from KeyEvent
+     */
+    public ScriptedUserInputListener pressKey(long frame, int keyFromKeyEvent) {
+        return schedule(frame, () -> pressedKeys.add(keyFromKeyEvent));
+    }
+
+    /**
+     * Releases a key at the given frame.
+     * @param keyFromKeyEvent A constant from KeyEvent
+     */
+    public ScriptedUserInputListener releaseKey(long frame, int keyFromKeyEvent) {
+        return schedule(frame, () -> {
+            pressedKeys.remove(keyFromKeyEvent);
+            releasedKeys.add(keyFromKeyEvent);
+        });
+    }
+
+    /**
+     * Presses a key at the given frame and releases it the given number of frames later.
+     */
+    public ScriptedUserInputListener holdKey(long frame, int keyFromKeyEvent, long frameCount) {
+        return pressKey(frame, keyFromKeyEvent).releaseKey(frame + frameCount, keyFromKeyEvent);
+    }
+
+    /**
+     * Presses a mouse button at the given frame; it stays pressed until released.
+     */
+    public ScriptedUserInputListener pressMouseButton(long frame, MouseButton button) {
+        return schedule(frame, () -> pressedMouseButtons.add(button));
+    }
+
+    /**
+     * Releases a mouse button at the given frame, which counts as a click.
+     */
+    public ScriptedUserInputListener releaseMouseButton(long frame, MouseButton button) {
+        return schedule(frame, () -> {
+            pressedMouseButtons.remove(button);
+            clickedMouseButtons.add(button);
+        });
+    }
+
+    /**
+     * Moves the mouse at the given frame.
+     * @param x pixels from the window's left edge
+     * @param y pixels from the window's top edge
+     */
+    public ScriptedUserInputListener moveMouse(long frame, float x, float y) {
+        return schedule(frame, () -> mousePos.setXY(x, y));
+    }
+
+    /**
+     * Scrolls the mouse wheel at the given frame.
+     */
+    public ScriptedUserInputListener scrollMouseWheel(long frame, double clicks) {
+        return schedule(frame, () -> mouseWheelClicksThisFrame = clicks);
+    }
+
+    /**
+     * Removes all the actions that haven't taken effect yet.
+     */
+    public void clearScript() {
+        script.clear();
+    }
+
+    /**
+     * package-private. Performs the actions scheduled for this frame,
+     * and those of earlier frames that were skipped.
+     */
+    void beginFrame(long frame) {
+        while(!script.isEmpty() && script.firstKey() <= frame) {
+            for(var action : script.pollFirstEntry().getValue())
+                action.run();
+        }
+    }
+
+    /**
+     * package-private. Forgets the keys and buttons released in the frame that ended.
+     */
+    void update(float deltaTime) {
+        releasedKeys.clear();
+        clickedMouseButtons.clear();
+        mouseWheelClicksThisFrame = 0;
+    }
+
+    @Override
+    public boolean isKeyPressed(int keyFromKeyEvent) {
+        return pressedKeys.contains(keyFromKeyEvent);
+    }
+
+    @Override
+    public boolean wasKeyReleasedThisFrame(int keyFromKeyEvent) {
+        return releasedKeys.contains(keyFromKeyEvent);
+    }
+
+    @Override
+    public boolean wasMouseButtonClickedThisFrame(MouseButton button) {
+        return clickedMouseButtons.contains(button);
+    }
+
+    @Override
+    public boolean isMouseButtonPressed(MouseButton button) {
+        return pressedMouseButtons.contains(button);
+    }
+
+    @Override
+    public Vector2 getMouseScreenPos() {
+        return mousePos;
+    }
+
+    @Override
+    public double mouseWheelClicksThisFrame() {
+        return mouseWheelClicksThisFrame;
+    }
+
+    private ScriptedUserInputListener schedule(long frame, Runnable action) {
+        script.computeIfAbsent(frame, f -> new ArrayList<>()).add(action);
+        return this;
+    }
+}
@@ -1,6 +1,9 @@
 package danogl.gui;
 
+import danogl.jfr.AssetLoadEvent;
+
 import javax.sound.sampled.*;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 /**
@@ -11,25 +14,51 @@ public class SoundReader {
     private static final int MAX_SIMULTANEOUS_RUNS = 5;
     private WindowController windowController;
     private ResourceReader resReader = new ResourceReader();
+    private final boolean isSilent;
 
     /** Used by the library */
     public SoundReader(WindowController windowController) {
+        this(windowController, false);
+    }
+
+    /**
+     * Used by the library
+     * @param isSilent if true, sounds are not read (there might be no audio device)
+     *                 and playing them does nothing
+     */
+    public SoundReader(WindowController windowController, boolean isSilent) {
         this.windowController = windowController;
+        this.isSilent = isSilent;
     }
 
     /** Read the sound with the specified path from disk or from within the jar */
     public Sound readSound(String wavFilePath) {
+        if(isSilent)
+            return new Sound(new Clip[0]);
+        var event = new AssetLoadEvent();
+        event.begin();
         Clip[] clips = new Clip[MAX_SIMULTANEOUS_RUNS];
-        for (int i = 0; i < clips.length ; i++) {
-            try (var stream = resReader.readResource(wavFilePath)) {
-                AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(stream);
+        CountingInputStream counter = null;
+        //the file is read once, and every clip decodes it anew
+        try (var stream = resReader.readResource(wavFilePath)) {
+            counter = new CountingInputStream(stream);
+            byte[] bytes = counter.readAllBytes();
+            for (int i = 0; i < clips.length ; i++) {
+                AudioInputStream audioInputStream =
+                        AudioSystem.getAudioInputStream(new ByteArrayInputStream(bytes));
                 clips[i] = AudioSystem.getClip();
                 clips[i].open(audioInputStream);
-            } catch (LineUnavailableException | IOException | UnsupportedAudioFileException e) {
-                windowController.showMessageBox(
-                        String.format("Failed to open file '%s': %s", wavFilePath, e.getMessage()));
-                windowController.closeWindow();
             }
+        } catch (LineUnavailableException | IOException | UnsupportedAudioFileException e) {
+            windowController.showMessageBox(
+                    String.format("Failed to open file '%s': %s", wavFilePath, e.getMessage()));
+            windowController.closeWindow();
+        }
+        if(event.shouldCommit()) {
+            event.path = wavFilePath;
+            event.kind = AssetLoadEvent.SOUND;
+            event.bytes = counter == null ? 0 : counter.count();
+            event.commit();
         }
         return new Sound(clips);
     }
@@ -58,6 +58,56 @@ public interface WindowController {
      * consumes less resources, at the cost of a choppier experience.</p>*/
     void setTargetFramerate(int targetFramerate);
 
+    /**
+     * The object that paces the frames to the target framerate
+     * (see {@link #setTargetFramerate(int)}), which also counts the frames
+     * that missed their deadline.
+     * @return the pacer, or null if the frames are not paced (the default).
+     */
+    default FramePacer getFramePacer() {
+        return null;
+    }
+
+    /**
+     * Updates the game in fixed time-steps, regardless of the framerate.
+     * The time that passes (times the time-scale) is accumulated, and each frame the game
+     * is updated, with a deltaTime of exactly 1/ticksPerSecond, as many times as fit in
+     * the accumulated time.
+     * Frames that fall between two updates render the objects between their
+     * positions before and after the last update, so that motion stays smooth.
+     * <p>By default the game is updated once per frame, with the time since the previous one.</p>
+     * @param ticksPerSecond how many updates to run per second of game time,
+     *                       or 0 to update once per frame (the default).
+     * @param maxSubsteps the maximal number of updates in a single frame. If the accumulated
+     *                    time requires more, the rest of it is dropped and the game slows down,
+     *                    rather than spending ever more time on catching up.
+     * @throws UnsupportedOperationException by default, unless ticksPerSecond is 0,
+     *                    for controllers that only update once per frame.
+     */
+    default void setFixedTimeStep(int ticksPerSecond, int maxSubsteps) {
+        if(ticksPerSecond != 0)
+            throw new UnsupportedOperationException("Fixed time-steps are not supported");
+    }
+
+    /**
+     * Sets whether the frames are drawn on a separate thread.
+     * When rendering is pipelined, each frame the game's objects are added to a snapshot
+     * (see {@link danogl.GameManager#captureRenderSnapshot}) which is drawn on
+     * a render thread, while the next frame is already being updated. A frame then takes
+     * roughly the longer of updating and drawing, rather than their sum,
+     * at the cost of showing each frame a frame later.
+     * <p>Note that GameManager.render is not called while rendering is pipelined.
+     * If drawing a frame on the render thread fails, the failure is reported and
+     * rendering is no longer pipelined.
+     * By default, rendering is not pipelined.</p>
+     * @throws UnsupportedOperationException by default, if isPipelined is true,
+     *                    for controllers that cannot pipeline rendering.
+     */
+    default void setPipelinedRendering(boolean isPipelined) {
+        if(isPipelined)
+            throw new UnsupportedOperationException("Pipelined rendering is not supported");
+    }
+
     /**
      * Sets a key to pause and unpause the game (prevent update calls).
      * By default, pausing is disabled (the game cannot be paused).
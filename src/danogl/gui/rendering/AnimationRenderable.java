@@ -51,6 +51,14 @@ public class AnimationRenderable implements Renderable {
         }
     }
 
+    /**
+     * The current clip, which the animation does not change
+     */
+    @Override
+    public Renderable snapshot() {
+        return clips[currImIndex].snapshot();
+    }
+
     @Override
     public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
                        double degreesCounterClockwise,
@@ -86,7 +86,9 @@ public class Camera extends GameObject {
     public void update(float deltaTime) {
         super.update(deltaTime);
         if(objToFollow != null)
-            setCenter(objToFollow.getCenter().add(deltaRelativeToObject));
+            transform().setCenter(
+                    objToFollow.transform().getCenterX() + deltaRelativeToObject.x(),
+                    objToFollow.transform().getCenterY() + deltaRelativeToObject.y());
     }
 
     /**
@@ -114,11 +116,22 @@ public class Camera extends GameObject {
      * to the window's top left corner)
      */
     public Vector2 worldToScreenCoords(Vector2 worldCoords) {
+        return worldToScreenCoords(worldCoords, 1);
+    }
+
+    /**
+     * Converts world coordinates to screen coordinates (in pixels, relative
+     * to the window's top left corner), according to this camera positioned
+     * between its previous and current positions
+     * (see {@link danogl.components.Transform#getInterpolatedTopLeftCorner(float)}).
+     */
+    public Vector2 worldToScreenCoords(Vector2 worldCoords, float alpha) {
+        var topLeftCorner = transform().getInterpolatedTopLeftCorner(alpha);
         float dimFactorX = windowDimensions().x()/getDimensions().x();
         float dimFactorY = windowDimensions().y()/getDimensions().y();
         freeCalculationsVector.setXY(
-                dimFactorX*(worldCoords.x()-getTopLeftCorner().x()),
-                dimFactorY*(worldCoords.y()-getTopLeftCorner().y()));
+                dimFactorX*(worldCoords.x()-topLeftCorner.x()),
+                dimFactorY*(worldCoords.y()-topLeftCorner.y()));
         return freeCalculationsVector;
     }
 }
@@ -0,0 +1,101 @@
+package danogl.gui.rendering;
+
+import danogl.util.MutableVector2;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * The state needed for drawing a single frame: for every visible object, a snapshot
+ * of its renderable (see {@link Renderable#snapshot()}) and where and how to render it,
+ * in screen coordinates.
+ * A snapshot is filled on the thread that updates the game and then drawn on another,
+ * while the game goes on to update the next frame. Once handed over,
+ * a snapshot is not modified until it's handed back to be refilled;
+ * two snapshots are therefore enough, and are reused rather than reallocated every frame.
+ * <p>Since only snapshots of the renderables are kept, the game can change its
+ * renderables (e.g. advance an animation or set a text) while the frame is drawn.</p>
+ * @author Dan Nirel
+ */
+public final class RenderSnapshot {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int VALUES_PER_ENTRY = 6;
+
+    private Renderable[] renderables = new Renderable[INITIAL_CAPACITY];
+    //per entry: top-left x, top-left y, width, height, angle and opaqueness
+    private float[] values = new float[INITIAL_CAPACITY*VALUES_PER_ENTRY];
+    private boolean[] isFlippedHorizontally = new boolean[INITIAL_CAPACITY];
+    private boolean[] isFlippedVertically = new boolean[INITIAL_CAPACITY];
+    private int size = 0;
+    private final MutableVector2 topLeftCorner = new MutableVector2();
+    private final MutableVector2 dimensions = new MutableVector2();
+
+    /**
+     * Removes all entries, so that the snapshot can be refilled.
+     */
+    public void clear() {
+        Arrays.fill(renderables, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * The number of entries in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry, to be drawn after the entries already in the snapshot.
+     * The arguments are those of {@link Renderable#render(Graphics2D, danogl.util.Vector2,
+     * danogl.util.Vector2, double, boolean, boolean, double)}.
+     * A snapshot of the renderable is taken (see {@link Renderable#snapshot()}),
+     * so this should be called on the thread that updates the renderable.
+     * A null renderable is ignored.
+     */
+    public void add(Renderable renderable,
+                    float topLeftX, float topLeftY, float width, float height,
+                    float degreesCounterClockwise,
+                    boolean isFlippedHorizontally, boolean isFlippedVertically,
+                    float opaqueness) {
+        if(renderable == null)
+            return;
+        if(size == renderables.length)
+            grow();
+        renderables[size] = renderable.snapshot();
+        int offset = size*VALUES_PER_ENTRY;
+        values[offset] = topLeftX;
+        values[offset+1] = topLeftY;
+        values[offset+2] = width;
+        values[offset+3] = height;
+        values[offset+4] = degreesCounterClockwise;
+        values[offset+5] = opaqueness;
+        this.isFlippedHorizontally[size] = isFlippedHorizontally;
+        this.isFlippedVertically[size] = isFlippedVertically;
+        size++;
+    }
+
+    /**
+     * Draws the entries, in the order they were added.
+     * @param g the graphics object of the frame
+     */
+    public void render(Graphics2D g) {
+        for(int i = 0 ; i < size ; i++) {
+            int offset = i*VALUES_PER_ENTRY;
+            topLeftCorner.setXY(values[offset], values[offset+1]);
+            dimensions.setXY(values[offset+2], values[offset+3]);
+            renderables[i].render(g, topLeftCorner, dimensions,
+                    values[offset+4],
+                    isFlippedHorizontally[i], isFlippedVertically[i],
+                    values[offset+5]);
+        }
+    }
+
+    private void grow() {
+        int capacity = 2*renderables.length;
+        renderables = Arrays.copyOf(renderables, capacity);
+        values = Arrays.copyOf(values, capacity*VALUES_PER_ENTRY);
+        isFlippedHorizontally = Arrays.copyOf(isFlippedHorizontally, capacity);
+        isFlippedVertically = Arrays.copyOf(isFlippedVertically, capacity);
+    }
+}
@@ -16,6 +16,16 @@ public interface Renderable {
      */
     default void update(double deltaTime) {}
 
+    /**
+     * Returns a renderable that renders as this one does now, and that the game
+     * does not change afterwards, so that it can be rendered on another thread
+     * (see {@link RenderSnapshot}). A renderable whose state never changes
+     * can return itself, which is the default.
+     */
+    default Renderable snapshot() {
+        return this;
+    }
+
     /**
      * Renders the object.
      * @param g The graphics object.
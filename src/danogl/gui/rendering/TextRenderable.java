@@ -24,6 +24,8 @@ public class TextRenderable implements Renderable {
     private static final String LINE_BREAK = "\n";
     private static final String DEFAULT_FONT = Font.SANS_SERIF;
     private static final float FONT_PTS_PER_INCH = 2*72f;
+    //without a display (see danogl.gui.HeadlessGameRunner) there's no screen to ask
+    private static final int HEADLESS_SCREEN_RESOLUTION = 96;
 
     private ConfigureGraphics configureGraphics = new ConfigureGraphics();
     private String str;
@@ -34,6 +36,8 @@ public class TextRenderable implements Renderable {
     private int lastRenderHeight = 10;
     private Font font;
     private Color textColor = Color.black;
+    //a copy of the current state, or null if the state changed since it was made
+    private TextRenderable snapshot = null;
 
     /** Construct a TextRenderable for the specified string */
     public TextRenderable(String str) { this(str, DEFAULT_FONT); }
@@ -52,6 +56,19 @@ public class TextRenderable implements Renderable {
             style |= Font.BOLD;
         font = new Font(fontName, style, 10); //meaningless size, will change in setString
         this.str = str;
+        lines = str.split(LINE_BREAK);
+    }
+
+    //a copy of other's current state
+    private TextRenderable(TextRenderable other) {
+        str = other.str;
+        lines = other.lines;
+        multilineHandling = other.multilineHandling;
+        gapBetweenLinesInPixels = other.gapBetweenLinesInPixels;
+        linePixelHeight = other.linePixelHeight;
+        lastRenderHeight = other.lastRenderHeight;
+        font = other.font;
+        textColor = other.textColor;
     }
 
     /** Returns the rendered string */
@@ -62,6 +79,7 @@ public class TextRenderable implements Renderable {
     /** Set the text color */
     public void setColor(Color textColor) {
         this.textColor = textColor;
+        snapshot = null;
     }
 
     /** Change the rendered string */
@@ -84,6 +102,18 @@ public class TextRenderable implements Renderable {
         this.multilineHandling = multilineHandling;
         this.gapBetweenLinesInPixels = gapBetweenLinesInPixels;
         resetDrawSettings();
+        snapshot = null;
+    }
+
+    /**
+     * A copy of the text as it is now, which is reused until the text changes.
+     * The copy is only rendered by the thread that renders the snapshots.
+     */
+    @Override
+    public Renderable snapshot() {
+        if(snapshot == null)
+            snapshot = new TextRenderable(this);
+        return snapshot;
     }
 
     @Override
@@ -128,6 +158,12 @@ public class TextRenderable implements Renderable {
         }
         font = new Font(font.getFontName(), font.getStyle(),
                 (int)(FONT_PTS_PER_INCH *
-                        (float)linePixelHeight/Toolkit.getDefaultToolkit().getScreenResolution()));
+                        (float)linePixelHeight/screenResolution()));
+    }
+
+    private static int screenResolution() {
+        if(GraphicsEnvironment.isHeadless())
+            return HEADLESS_SCREEN_RESOLUTION;
+        return Toolkit.getDefaultToolkit().getScreenResolution();
     }
 }
@@ -0,0 +1,34 @@
+package danogl.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Reading and decoding an image or a sound.
+ * @author Dan Nirel
+ */
+@Name("danogl.AssetLoad")
+@Label("Asset Load")
+@Category("danogl")
+@Description("Reading and decoding an image or a sound")
+public final class AssetLoadEvent extends Event {
+    /** The kind of an image asset */
+    public static final String IMAGE = "image";
+    /** The kind of a sound asset */
+    public static final String SOUND = "sound";
+
+    /** The path the asset was read from */
+    @Label("Path")
+    public String path;
+
+    /** Either {@link #IMAGE} or {@link #SOUND} */
+    @Label("Kind")
+    public String kind;
+
+    /**
+     * The number of bytes read from the asset's file. Fewer than its size if reading it failed,
+     * or if the decoder did not need the rest (e.g. data trailing an image)
+     */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,30 @@
+package danogl.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A single invocation of {@link danogl.collisions.GameObjectCollection#handleCollisions()}.
+ * @author Dan Nirel
+ */
+@Name("danogl.CollisionPass")
+@Label("Collision Pass")
+@Category("danogl")
+@Description("Finding and reporting the collisions of a game-object collection")
+@StackTrace(false)
+public final class CollisionPassEvent extends Event {
+    /** The pairs the broadphase reported, plus the contacts it missed, checked for having ended */
+    @Label("Candidate Pairs")
+    public int candidatePairs;
+
+    /** The pairs colliding at the end of the pass */
+    @Label("Contacts")
+    public int contacts;
+
+    /** The pairs that started colliding during the pass */
+    @Label("Enters")
+    public int enters;
+
+    /** The pairs that stopped colliding during the pass */
+    @Label("Exits")
+    public int exits;
+}
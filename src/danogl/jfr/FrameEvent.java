@@ -0,0 +1,30 @@
+package danogl.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A frame of the game loop, from its start to the start of the next frame:
+ * its duration is the frame's, and the durations of its phases are recorded as fields.
+ * @author Dan Nirel
+ */
+@Name("danogl.Frame")
+@Label("Frame")
+@Category("danogl")
+@Description("A frame of the game loop")
+@StackTrace(false)
+public final class FrameEvent extends Event {
+    /** The time spent updating the game, in nanoseconds */
+    @Label("Update Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateDuration;
+
+    /** The time spent rendering and showing the frame, in nanoseconds */
+    @Label("Render Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long renderDuration;
+
+    /** The time spent waiting for the next frame's deadline, in nanoseconds */
+    @Label("Idle Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long idleDuration;
+}
@@ -0,0 +1,23 @@
+package danogl.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Applying the pending changes of a {@link danogl.util.ModifiableList}.
+ * Only flushes that change the list are recorded.
+ * @author Dan Nirel
+ */
+@Name("danogl.ListFlush")
+@Label("List Flush")
+@Category("danogl")
+@Description("Applying the additions and removals pending in a modifiable list")
+@StackTrace(false)
+public final class ListFlushEvent extends Event {
+    /** The number of elements added */
+    @Label("Added")
+    public int added;
+
+    /** The number of elements removed */
+    @Label("Removed")
+    public int removed;
+}
@@ -25,16 +25,37 @@ public class FPSCounter {
      * @return
      */
     public static GameObject create(Vector2 topLeftCorner, int height, Color color) {
+        return create(topLeftCorner, height, color, null);
+    }
+
+    /**
+     * Create a GameObject that displays the frames-per-second, followed by the p50/p95/p99
+     * durations of the phases of the frame, as measured by a profiler.
+     * Otherwise the same as {@link #create(Vector2, int, Color)}.
+     * @param height Height, in pixels, of every line of the counter.
+     * @param profiler The profiler, which is enabled by this method. Can be null,
+     *                 in which case only the frames-per-second are displayed.
+     * @see danogl.GameManager#profiler()
+     */
+    public static GameObject create(Vector2 topLeftCorner, int height, Color color,
+                                    FrameProfiler profiler) {
         GameObject fpsCounter = new GameObject(topLeftCorner, Vector2.DOWN.mult(height), null);
         Counter framesCounter = new Counter();
         TextRenderable fpsStringRenderer = new TextRenderable("");
         fpsStringRenderer.setColor(color);
+        if(profiler != null)
+            profiler.setEnabled(true);
         new ScheduledTask(
                 fpsCounter, TIME_BETWEEN_FPS_REFRESHES, true,
                 ()->{
                     int fps = (int)(framesCounter.value() / TIME_BETWEEN_FPS_REFRESHES);
                     framesCounter.reset();
-                    fpsStringRenderer.setString("FPS: "+fps);
+                    if(profiler == null)
+                        fpsStringRenderer.setString("FPS: "+fps);
+                    else
+                        fpsStringRenderer.setString("FPS: "+fps+"\n"+profiler.summary(),
+                                TextRenderable.MultilineHandling.HEIGHT_IS_FOR_SINGLE_LINE,
+                                height/2);
                 });
         fpsCounter.renderer().setRenderable(fpsStringRenderer);
         fpsCounter.addComponent(deltaTime -> framesCounter.increment());
@@ -0,0 +1,202 @@
+package danogl.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how long each phase of a frame takes. The engine times the phases itself
+ * once the profiler is enabled (see {@link danogl.GameManager#profiler()});
+ * the durations of the last {@link #WINDOW_SIZE} samples of every phase are kept,
+ * and their percentiles can be displayed on screen
+ * (see {@link FPSCounter#create(Vector2, int, java.awt.Color, FrameProfiler)})
+ * or written to a CSV file.
+ * <p>Every phase is timed by a single thread at a time, which writes its samples into
+ * a ring buffer without locking; readers copy the buffer, so a percentile might include
+ * a sample that was being written as it was copied.</p>
+ * @author Dan Nirel
+ */
+public class FrameProfiler {
+    /**
+     * The timed phases. Phases of the game loop are timed once per frame;
+     * the phases of GameManager.update are timed once per update.
+     */
+    public enum Phase {
+        /** From the start of a frame to the start of the next one */
+        FRAME,
+        /** The updates of a frame, including the game's own logic */
+        UPDATE,
+        /** Updating the objects and the camera, within GameManager.update */
+        UPDATE_OBJECTS,
+        /** Applying the changes to the collection (additions, removals, layers) */
+        FLUSH_CHANGES,
+        /** Finding and reporting the collisions */
+        HANDLE_COLLISIONS,
+        /** Rendering the objects (or capturing them, if rendering is pipelined) */
+        RENDER,
+        /** Drawing a captured frame, if rendering is pipelined, and showing the frame */
+        PRESENT,
+        /** Waiting for the next frame's deadline */
+        IDLE
+    }
+
+    /** The number of the last samples of every phase the percentiles are taken of */
+    public static final int WINDOW_SIZE = 1024;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final String CSV_HEADER = "phase,samples,p50_ms,p95_ms,p99_ms,max_ms";
+
+    private volatile boolean isEnabled = false;
+    private final long[] startTimes = new long[PHASES.length];
+    private final long[][] samples = new long[PHASES.length][WINDOW_SIZE];
+    //the number of samples ever written for every phase; published after the sample is written
+    private final AtomicLongArray sampleCounts = new AtomicLongArray(PHASES.length);
+
+    /**
+     * Is the profiler timing the phases. See {@link #setEnabled(boolean)}
+     */
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Starts or stops timing the phases. The profiler is disabled by default;
+     * while it is, timing a phase costs nothing more than checking this flag.
+     */
+    public void setEnabled(boolean isEnabled) {
+        if(isEnabled && !this.isEnabled)
+            Arrays.fill(startTimes, 0);
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Marks the start of a phase. Should be called by the thread that later calls
+     * {@link #stop(Phase)} for this phase.
+     */
+    public void start(Phase phase) {
+        if(isEnabled)
+            startTimes[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a phase, and records the time since it started.
+     */
+    public void stop(Phase phase) {
+        if(!isEnabled)
+            return;
+        int index = phase.ordinal();
+        long startTime = startTimes[index];
+        if(startTime == 0)
+            return; //the profiler was enabled while the phase was underway
+        long count = sampleCounts.get(index);
+        samples[index][(int)(count % WINDOW_SIZE)] = System.nanoTime() - startTime;
+        sampleCounts.lazySet(index, count + 1);
+    }
+
+    /**
+     * Records the time since the previous call for the phase, and starts the phase anew;
+     * used for phases which end where the next one starts, like {@link Phase#FRAME}.
+     */
+    public void restart(Phase phase) {
+        stop(phase);
+        start(phase);
+    }
+
+    /**
+     * The number of samples recorded for the phase since the profiler was last reset
+     */
+    public long sampleCount(Phase phase) {
+        return sampleCounts.get(phase.ordinal());
+    }
+
+    /**
+     * The given percentile of the durations of the last samples of a phase, in nanoseconds.
+     * @param percentile between 0 and 100, e.g. 99 for p99
+     * @return the duration, or 0 if the phase has no samples
+     */
+    public long percentileNanos(Phase phase, double percentile) {
+        return percentile(window(phase), percentile);
+    }
+
+    /**
+     * Forgets all samples.
+     */
+    public void reset() {
+        for(int i = 0 ; i < PHASES.length ; i++) {
+            sampleCounts.set(i, 0);
+            startTimes[i] = 0;
+        }
+    }
+
+    /**
+     * A summary of the phases, one per line: the p50, p95 and p99 of each, in milliseconds.
+     * Phases with no samples are omitted.
+     */
+    public String summary() {
+        var builder = new StringBuilder();
+        for(var phase : PHASES) {
+            long[] window = window(phase);
+            if(window.length == 0)
+                continue;
+            if(builder.length() > 0)
+                builder.append('\n');
+            builder.append(String.format(Locale.ROOT, "%s: %.2f / %.2f / %.2f ms", phase,
+                    millis(percentile(window, 50)), millis(percentile(window, 95)),
+                    millis(percentile(window, 99))));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the percentiles of every phase to a CSV file, one phase per line.
+     * @param path the file to write, which is overwritten if it exists
+     */
+    public void dumpCsv(String path) throws IOException {
+        try(var writer = new PrintWriter(Files.newBufferedWriter(Paths.get(path)))) {
+            writer.println(CSV_HEADER);
+            for(var phase : PHASES) {
+                long[] window = window(phase);
+                writer.printf(Locale.ROOT, "%s,%d,%.4f,%.4f,%.4f,%.4f%n", phase, sampleCount(phase),
+                        millis(percentile(window, 50)), millis(percentile(window, 95)),
+                        millis(percentile(window, 99)), millis(percentile(window, 100)));
+            }
+        }
+    }
+
+    /**
+     * Writes the percentiles to a CSV file when the program exits (see {@link #dumpCsv(String)}).
+     */
+    public void dumpCsvOnExit(String path) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dumpCsv(path);
+            } catch (IOException e) {
+                System.err.println("Failed to write the frame profile: " + e.getMessage());
+            }
+        }));
+    }
+
+    //a sorted copy of the last samples of a phase
+    private long[] window(Phase phase) {
+        int index = phase.ordinal();
+        int size = (int)Math.min(sampleCounts.get(index), WINDOW_SIZE);
+        long[] window = Arrays.copyOf(samples[index], size);
+        Arrays.sort(window);
+        return window;
+    }
+
+    private static long percentile(long[] sortedWindow, double percentile) {
+        if(sortedWindow.length == 0)
+            return 0;
+        int rank = (int)Math.ceil(percentile / 100 * sortedWindow.length);
+        return sortedWindow[Math.min(Math.max(rank, 1), sortedWindow.length) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+}
@@ -0,0 +1,98 @@
+package danogl.util;
+
+/**
+ * A map from objects, compared by identity, to non-negative ints.
+ * An open-addressing hash table with linear probing, which neither boxes nor allocates
+ * (other than when growing).
+ * @author Dan Nirel
+ */
+public class IdentityIntMap {
+    /** Returned by {@link #get(Object)} for keys not in the map */
+    public static final int ABSENT = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] keys = new Object[MIN_CAPACITY];
+    private int[] values = new int[MIN_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Returns the value of a key, or {@link #ABSENT} if the key is not in the map.
+     */
+    public int get(Object key) {
+        int mask = keys.length - 1;
+        for(int slot = slotOf(key, mask) ; keys[slot] != null ; slot = (slot + 1) & mask) {
+            if(keys[slot] == key)
+                return values[slot];
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Sets the value of a key, adding it if necessary.
+     */
+    public void put(Object key, int value) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        for( ; keys[slot] != null ; slot = (slot + 1) & mask) {
+            if(keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size > keys.length / 2)
+            resize(2 * keys.length);
+    }
+
+    /**
+     * Removes a key.
+     * @return the key's value, or {@link #ABSENT} if it wasn't in the map
+     */
+    public int remove(Object key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while(keys[slot] != key) {
+            if(keys[slot] == null)
+                return ABSENT;
+            slot = (slot + 1) & mask;
+        }
+        int value = values[slot];
+        //shift back the following entries of the probe sequence, instead of leaving a tombstone
+        int empty = slot;
+        for(slot = (slot + 1) & mask ; keys[slot] != null ; slot = (slot + 1) & mask) {
+            int home = slotOf(keys[slot], mask);
+            if(((slot - home) & mask) >= ((slot - empty) & mask)) {
+                keys[empty] = keys[slot];
+                values[empty] = values[slot];
+                empty = slot;
+            }
+        }
+        keys[empty] = null;
+        size--;
+        return value;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for(int i = 0 ; i < oldKeys.length ; i++) {
+            if(oldKeys[i] == null)
+                continue;
+            int slot = slotOf(oldKeys[i], mask);
+            while(keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int slotOf(Object key, int mask) {
+        int hash = System.identityHashCode(key) * 0x9E3779B1;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,191 @@
+package danogl.util;
+
+import danogl.jfr.ListFlushEvent;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ModifiableList} which compares its elements by identity rather than by equals,
+ * and does not allow duplicates (nor null elements).
+ * The position of every element is indexed, so that add, remove and contains take
+ * constant time, and flushChanges takes time linear in the number of changes
+ * (plus, if elements were removed, in the number of elements following the first of them).
+ * The order of the elements is preserved.
+ * @param <E> The element type
+ * @author Dan Nirel
+ */
+public class IdentityModifiableList<E> extends ModifiableList<E> {
+    private Object[] elements = new Object[16];
+    private int size = 0;
+    private final IdentityIntMap positions = new IdentityIntMap();
+    private boolean[] isPendingRemoval = new boolean[16];
+    private int pendingRemovalCount = 0;
+    private int firstPendingRemoval = Integer.MAX_VALUE;
+    private Object[] removed = new Object[16];
+
+    //elements pending addition, in order of addition; elements removed before being added are null
+    private Object[] toAdd = new Object[16];
+    private int toAddEnd = 0;
+    private int pendingAddCount = 0;
+    private final IdentityIntMap toAddPositions = new IdentityIntMap();
+
+    /**
+     * Creates a new empty list.
+     */
+    public IdentityModifiableList() {
+        super(false);
+    }
+
+    @Override
+    public boolean add(E item) {
+        if(item == null)
+            throw new IllegalArgumentException("Elements cannot be null");
+        if(positions.get(item) != IdentityIntMap.ABSENT
+                || toAddPositions.get(item) != IdentityIntMap.ABSENT)
+            return false;
+        if(toAddEnd == toAdd.length)
+            toAdd = Arrays.copyOf(toAdd, 2*toAddEnd);
+        toAddPositions.put(item, toAddEnd);
+        toAdd[toAddEnd++] = item;
+        pendingAddCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(E item) {
+        boolean removedFromToAdd = false;
+        int toAddPosition = toAddPositions.remove(item);
+        if(toAddPosition != IdentityIntMap.ABSENT) {
+            toAdd[toAddPosition] = null;
+            pendingAddCount--;
+            removedFromToAdd = true;
+        }
+        int position = positions.get(item);
+        if(position == IdentityIntMap.ABSENT || isPendingRemoval[position])
+            return removedFromToAdd;
+        isPendingRemoval[position] = true;
+        pendingRemovalCount++;
+        firstPendingRemoval = Math.min(firstPendingRemoval, position);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void flushChanges() {
+        if(pendingRemovalCount == 0 && pendingAddCount == 0) {
+            //elements added and removed again since the last flush only left gaps
+            toAddEnd = 0;
+            return;
+        }
+        var event = new ListFlushEvent();
+        event.begin();
+        int removedCount = 0;
+        if(pendingRemovalCount > 0) {
+            if(removed.length < pendingRemovalCount)
+                removed = new Object[Math.max(pendingRemovalCount, 2*removed.length)];
+            //compact the remaining elements, keeping their order
+            int write = firstPendingRemoval;
+            for(int read = firstPendingRemoval ; read < size ; read++) {
+                var element = elements[read];
+                if(isPendingRemoval[read]) {
+                    isPendingRemoval[read] = false;
+                    positions.remove(element);
+                    removed[removedCount++] = element;
+                    continue;
+                }
+                if(write != read) {
+                    elements[write] = element;
+                    positions.put(element, write);
+                }
+                write++;
+            }
+            Arrays.fill(elements, write, size, null);
+            size = write;
+            pendingRemovalCount = 0;
+            firstPendingRemoval = Integer.MAX_VALUE;
+        }
+
+        int firstAdded = size;
+        if(pendingAddCount > 0) {
+            if(size + pendingAddCount > elements.length) {
+                int capacity = Math.max(size + pendingAddCount, 2*elements.length);
+                elements = Arrays.copyOf(elements, capacity);
+                isPendingRemoval = Arrays.copyOf(isPendingRemoval, capacity);
+            }
+            for(int i = 0 ; i < toAddEnd ; i++) {
+                if(toAdd[i] == null)
+                    continue;
+                toAddPositions.remove(toAdd[i]);
+                positions.put(toAdd[i], size);
+                elements[size++] = toAdd[i];
+            }
+        }
+        Arrays.fill(toAdd, 0, toAddEnd, null);
+        toAddEnd = 0;
+        pendingAddCount = 0;
+
+        if(onRemoved != null) {
+            for(int i = 0 ; i < removedCount ; i++)
+                onRemoved.accept((E)removed[i]);
+        }
+        Arrays.fill(removed, 0, removedCount, null);
+        if(onAdded != null) {
+            for(int i = firstAdded ; i < size ; i++)
+                onAdded.accept((E)elements[i]);
+        }
+        if(event.shouldCommit()) {
+            event.added = size - firstAdded;
+            event.removed = removedCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean hasPendingChanges() {
+        return pendingAddCount > 0 || pendingRemovalCount > 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return (E)elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(E item) {
+        int position = positions.get(item);
+        if(position != IdentityIntMap.ABSENT)
+            return !isPendingRemoval[position];
+        return toAddPositions.get(item) != IdentityIntMap.ABSENT;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(elements, 0, size, Spliterator.ORDERED);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E findFirst(Predicate<E> predicate) {
+        for(int i = 0 ; i < size ; i++) {
+            if(!isPendingRemoval[i] && predicate.test((E)elements[i]))
+                return (E)elements[i];
+        }
+        for(int i = 0 ; i < toAddEnd ; i++) {
+            if(toAdd[i] != null && predicate.test((E)toAdd[i]))
+                return (E)toAdd[i];
+        }
+        return null;
+    }
+}
@@ -1,9 +1,12 @@
 package danogl.util;
 
+import danogl.jfr.ListFlushEvent;
+
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -36,7 +39,7 @@ public class ModifiableList<E> implements Iterable<E> {
         @Override
         public E next() {
             iteratingNow = true;
-            var element = list.get(index);
+            var element = get(index);
             index += indexStep;
             if(!hasNext())
                 iteratingNow = false;
@@ -46,10 +49,10 @@ public class ModifiableList<E> implements Iterable<E> {
     private class Reverse implements Iterable<E> {
         @Override
         public Iterator<E> iterator() {
-            if(iterator.tryReset(list.size()-1, -1, -1))
+            if(iterator.tryReset(size()-1, -1, -1))
                 return iterator;
             var newIt = new MyIterator();
-            newIt.tryReset(list.size()-1, -1, -1);
+            newIt.tryReset(size()-1, -1, -1);
             return newIt;
         }
     }
@@ -60,6 +63,8 @@ public class ModifiableList<E> implements Iterable<E> {
     private MyIterator iterator = new MyIterator();
     private Reverse reverseIterable;
     private boolean allowDuplicates;
+    /** Callbacks for the elements added and removed by flushChanges; either may be null */
+    protected Consumer<? super E> onAdded, onRemoved;
 
     /**
      * Creates a new modfiable list
@@ -109,10 +114,43 @@ public class ModifiableList<E> implements Iterable<E> {
      * Applies to the list the modifications made to it since the last call to this method.
      */
     public void flushChanges() {
+        if(toRemove.isEmpty() && toAdd.isEmpty())
+            return;
+        var event = new ListFlushEvent();
+        event.begin();
+        int removedCount = toRemove.size(), addedCount = toAdd.size();
         list.removeAll(toRemove);
+        if(onRemoved != null)
+            toRemove.forEach(onRemoved);
         toRemove.clear();
         list.addAll(toAdd);
+        if(onAdded != null)
+            toAdd.forEach(onAdded);
         toAdd.clear();
+        if(event.shouldCommit()) {
+            event.added = addedCount;
+            event.removed = removedCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets callbacks to be invoked by {@link #flushChanges()} for every element
+     * it actually adds to or removes from the list.
+     * @param onAdded invoked with every element added. Can be null.
+     * @param onRemoved invoked with every element removed. Can be null.
+     */
+    public void setFlushCallbacks(Consumer<? super E> onAdded, Consumer<? super E> onRemoved) {
+        this.onAdded = onAdded;
+        this.onRemoved = onRemoved;
+    }
+
+    /**
+     * Returns whether elements were added or removed since the last call to {@link #flushChanges()},
+     * i.e. whether the next call would change the list.
+     */
+    public boolean hasPendingChanges() {
+        return !toAdd.isEmpty() || !toRemove.isEmpty();
     }
 
     /**
@@ -144,10 +182,10 @@ public class ModifiableList<E> implements Iterable<E> {
 
     @Override
     public Iterator<E> iterator() {
-        if(iterator.tryReset(0, 1, list.size()))
+        if(iterator.tryReset(0, 1, size()))
             return iterator;
         var newIt = new MyIterator();
-        newIt.tryReset(0, 1, list.size());
+        newIt.tryReset(0, 1, size());
         return newIt;
     }
 
@@ -1,8 +1,5 @@
 package danogl.util;
 
-import java.util.function.Function;
-import java.util.function.Supplier;
-
 /**
  * A mutable 2D vector, extending Vector2.
  * All methods are self explanatory, with most corresponding to
@@ -16,12 +13,6 @@ import java.util.function.Supplier;
  * @author Dan Nirel
  */
 public class MutableVector2 extends Vector2 {
-    private static interface FloatToVecFunction {
-        Vector2 apply(float f);
-    }
-
-    private boolean mutateSelf = false;
-
     public MutableVector2() { super(0, 0); }
     public MutableVector2(float x, float y) { super(x, y); }
     public MutableVector2(Vector2 v) { super(v); }
@@ -31,59 +22,54 @@ public class MutableVector2 extends Vector2 {
     public void setXY(float x, float y) { setX(x); setY(y); }
     public void setXY(Vector2 v) { setX(v.x); setY(v.y); }
 
-    public MutableVector2 selfMult(float factor) { return mutableOperator(this::mult, factor); }
-    public MutableVector2 selfMultX(float factor) { return mutableOperator(this::multX, factor); }
-    public MutableVector2 selfMultY(float factor) { return mutableOperator(this::multY, factor); }
-    public MutableVector2 selfAdd(Vector2 v) { return mutableOperator(this::add, v); }
-    public MutableVector2 selfSubtract(Vector2 v) { return mutableOperator(this::subtract, v); }
-
-    public MutableVector2 selfZeroAlongNormal(Vector2 normal)
-            { return mutableOperator(this::zeroedAlongNormal, normal); }
-    public MutableVector2 selfFlip(Vector2 normal)
-            { return mutableOperator(this::flipped, normal);}
-    public MutableVector2 selfRotateToNearestAxis()
-            { return mutableOperator(this::rotatedToNearestAxis); }
-    public MutableVector2 selfRotate(float degreesCounterclockwise)
-            { return mutableOperator(this::rotated, degreesCounterclockwise); }
+    //the operations below update the coordinates in place, without creating any vectors
+    public MutableVector2 selfMult(float factor) { x *= factor; y *= factor; return this; }
+    public MutableVector2 selfMultX(float factor) { x *= factor; return this; }
+    public MutableVector2 selfMultY(float factor) { y *= factor; return this; }
+    public MutableVector2 selfAdd(Vector2 v) { return selfAdd(v.x, v.y); }
+    public MutableVector2 selfAdd(float x, float y) { this.x += x; this.y += y; return this; }
+    public MutableVector2 selfSubtract(Vector2 v) { return selfAdd(-v.x, -v.y); }
 
-    public MutableVector2 selfNormalize() {
-        if(isZero())
-            setXY(ZERO);
-        else
-            selfMult(1f/magnitude());
+    public MutableVector2 selfZeroAlongNormal(Vector2 normal) {
+        float normalMag = normal.magnitude();
+        float proj = dot(normal)/normalMag;
+        setXY(x-normal.x/normalMag*proj, y-normal.y/normalMag*proj);
         return this;
     }
 
-    @Override
-    public Vector2 getImmutableCopy() { return new Vector2(this); }
-
-    @Override
-    protected Vector2 createVec(float x, float y) {
-        if(!mutateSelf)
-            return new Vector2(x, y);
-        setX(x);
-        setY(y);
+    public MutableVector2 selfFlip(Vector2 normal) {
+        float normalMag = normal.magnitude();
+        float proj = dot(normal)/normalMag;
+        //as in flipped: only a vector that opposes the normal is flipped
+        if(proj < 0)
+            setXY(x-normal.x*2f*proj/normalMag, y-normal.y*2f*proj/normalMag);
         return this;
     }
 
-    private MutableVector2 mutableOperator(Function<Vector2, Vector2> method, Vector2 param){
-        mutateSelf = true;
-        method.apply(param);
-        mutateSelf = false;
+    public MutableVector2 selfRotateToNearestAxis() {
+        float magnitude = magnitude();
+        if(Math.abs(x) > Math.abs(y))
+            setXY(Math.signum(x)*magnitude, 0);
+        else
+            setXY(0, Math.signum(y)*magnitude);
         return this;
     }
 
-    private MutableVector2 mutableOperator(FloatToVecFunction method, float param) {
-        mutateSelf = true;
-        method.apply(param);
-        mutateSelf = false;
+    public MutableVector2 selfRotate(float degreesCounterclockwise) {
+        double cos = Math.cos(Math.toRadians(-degreesCounterclockwise));
+        double sin = Math.sin(Math.toRadians(-degreesCounterclockwise));
+        setXY((float)(cos*x-sin*y), (float)(sin*x+cos*y));
         return this;
     }
 
-    private MutableVector2 mutableOperator(Supplier<Vector2> method) {
-        mutateSelf = true;
-        method.get();
-        mutateSelf = false;
+    public MutableVector2 selfNormalize() {
+        if(isZero())
+            setXY(ZERO);
+        else
+            selfMult(1f/magnitude());
         return this;
     }
+
+    @Override
+    public Vector2 getImmutableCopy() { return new Vector2(this); }
 }
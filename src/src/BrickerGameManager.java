@@ -5,6 +5,7 @@ import src.brick_strategies.CollisionStrategy;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Layer;
+import danogl.collisions.shapes.ShapePairCollisionHandler;
 import danogl.components.CoordinateSpace;
 import danogl.gui.*;
 import danogl.gui.rendering.RectangleRenderable;
@@ -78,6 +79,9 @@ public class BrickerGameManager extends GameManager {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         windowController.setTargetFramerate(FRAME_RATE);
         windowDimensions = windowController.getWindowDimensions();
+        gameObjects().layers().setLayerStatic(Layer.STATIC_OBJECTS, true);
+        // The balls are round, so they collide as circles
+        gameObjects().registerPairCollisionHandler(new ShapePairCollisionHandler());
         bricksCounter = new Counter(BRICK_LINES*BRICKS_PER_LINE);
         BrickStrategyFactory strategyFactory = new BrickStrategyFactory(gameObjects(), this,
                 imageReader, soundReader, inputListener, windowController, windowDimensions);
@@ -186,7 +190,8 @@ public class BrickerGameManager extends GameManager {
      * Removes the pucks that got out of the screen from the game objects.
      */
     private void pucksRemover() {
-        for(GameObject obj: gameObjects()) {
+        for(int i = 0; i < gameObjects().objectCount(); i++) {
+            GameObject obj = gameObjects().objectAt(i);
             if(obj.getTopLeftCorner().y() > windowDimensions.y()) {
                 gameObjects().removeGameObject(obj);
             }
@@ -198,7 +203,7 @@ public class BrickerGameManager extends GameManager {
      * according to the given situation.
      */
     private void checkForGameEnd() {
-        float ballHeight = ball.getCenter().y();
+        float ballHeight = ball.transform().getCenterY();
         String prompt = "";
         if(bricksCounter.value() <= 0) { // We won
             prompt = "You Win!";
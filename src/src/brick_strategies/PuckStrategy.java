@@ -31,7 +31,7 @@ public class PuckStrategy extends RemoveBrickStrategyDecorator {
      */
     public PuckStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader, SoundReader soundReader) {
         super(toBeDecorated);
-        this.ballImage = imageReader.readImage("assets/Mockball.png", true);
+        this.ballImage = imageReader.readImage("assets/mockBall.png", true);
         this.collisionSound = soundReader.readSound("assets/blop_cut_silenced.wav");
     }
 
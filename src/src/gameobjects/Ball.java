@@ -2,6 +2,7 @@ package src.gameobjects;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
+import danogl.collisions.shapes.CircleCollider;
 import danogl.gui.Sound;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
@@ -27,6 +28,9 @@ public class Ball extends GameObject {
         super(topLeftCorner, dimensions, renderable);
         this.collisionSound = collisionSound;
         this.setTag("mainBall");
+        physics().setCollider(new CircleCollider());
+        // Fast enough to pass through a brick or a border in a single frame
+        physics().setFastMover(true);
     }
 
     /**
@@ -46,14 +46,14 @@ public class Paddle extends GameObject {
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
-        Vector2 movementDir = Vector2.ZERO;
+        float movementDirX = 0;
         if(inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
-            movementDir = movementDir.add(Vector2.LEFT);
+            movementDirX += Vector2.LEFT.x();
         }
         if(inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
-            movementDir = movementDir.add(Vector2.RIGHT);
+            movementDirX += Vector2.RIGHT.x();
         }
-        setVelocity(movementDir.mult(MOVEMENT_SPEED));
+        transform().setVelocity(movementDirX * MOVEMENT_SPEED, 0);
         if(getTopLeftCorner().x() < minDistanceFromEdge) {
             transform().setTopLeftCornerX(minDistanceFromEdge);
         }
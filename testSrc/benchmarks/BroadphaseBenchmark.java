@@ -0,0 +1,114 @@
+package benchmarks;
+
+import danogl.GameObject;
+import danogl.collisions.AllPairsBroadphase;
+import danogl.collisions.Broadphase;
+import danogl.collisions.DynamicAABBTreeBroadphase;
+import danogl.collisions.SweepAndPruneBroadphase;
+import danogl.collisions.UniformGridBroadphase;
+import danogl.util.ModifiableList;
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Compares the broadphase implementations on a Bricker-like scene: a wall of static bricks
+ * and balls moving a few pixels every frame. The density of the scene stays the same
+ * as the number of objects grows.
+ * Run with gradle jmh (see {@link RunBenchmarks}).
+ * @author Dan Nirel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BroadphaseBenchmark {
+    private static final float MOVING_OBJECTS_RATIO = 0.3f;
+    private static final float OBJECT_SIZE = 20;
+    private static final float SPACE_PER_OBJECT = 40;
+    private static final float DELTA_TIME = 1/120f;
+
+    @Param({"AllPairsBroadphase", "UniformGridBroadphase",
+            "SweepAndPruneBroadphase", "DynamicAABBTreeBroadphase"})
+    public String broadphase;
+
+    @Param({"100", "1000", "10000"})
+    public int objectCount;
+
+    private final ModifiableList<GameObject> staticObjects = new ModifiableList<>(false);
+    private final ModifiableList<GameObject> movingObjects = new ModifiableList<>(false);
+    //like the default layers: static objects with moving ones, and moving ones among themselves
+    private Broadphase staticWithMoving, movingWithMoving;
+    private float worldSize;
+    private int pairsFound;
+    private final BiConsumer<GameObject, GameObject> countPair = (go1, go2) -> pairsFound++;
+
+    @Setup
+    public void setUp() {
+        staticWithMoving = createBroadphase();
+        movingWithMoving = createBroadphase();
+        var random = new Random(objectCount);
+        int columns = (int)Math.ceil(Math.sqrt(objectCount));
+        worldSize = columns * SPACE_PER_OBJECT;
+        int movingCount = (int)(objectCount * MOVING_OBJECTS_RATIO);
+        for(int i = 0 ; i < objectCount - movingCount ; i++) {
+            var brick = new GameObject(
+                    new Vector2((i % columns) * SPACE_PER_OBJECT, (i / columns) * SPACE_PER_OBJECT),
+                    new Vector2(SPACE_PER_OBJECT, OBJECT_SIZE), null);
+            staticObjects.add(brick);
+        }
+        for(int i = 0 ; i < movingCount ; i++) {
+            var ball = new GameObject(
+                    new Vector2(random.nextFloat() * worldSize, random.nextFloat() * worldSize),
+                    new Vector2(OBJECT_SIZE, OBJECT_SIZE), null);
+            ball.setVelocity(new Vector2(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f)
+                    .normalized().mult(200));
+            movingObjects.add(ball);
+        }
+        staticObjects.flushChanges();
+        movingObjects.flushChanges();
+    }
+
+    /** A frame: the balls move, then the pairs of both layer pairs are found */
+    @Benchmark
+    public int findPairs() {
+        for(var go : movingObjects) {
+            go.update(DELTA_TIME);
+            //keep the balls inside the scene
+            var corner = go.getTopLeftCorner();
+            if(corner.x() < 0 || corner.x() > worldSize)
+                go.transform().setVelocityX(-go.getVelocity().x());
+            if(corner.y() < 0 || corner.y() > worldSize)
+                go.transform().setVelocityY(-go.getVelocity().y());
+        }
+        pairsFound = 0;
+        staticWithMoving.findPairs(staticObjects, movingObjects, countPair);
+        movingWithMoving.findPairs(movingObjects, movingObjects, countPair);
+        return pairsFound;
+    }
+
+    private Broadphase createBroadphase() {
+        switch(broadphase) {
+            case "AllPairsBroadphase": return new AllPairsBroadphase();
+            case "UniformGridBroadphase": return new UniformGridBroadphase();
+            case "SweepAndPruneBroadphase": return new SweepAndPruneBroadphase();
+            case "DynamicAABBTreeBroadphase": return new DynamicAABBTreeBroadphase();
+            default: throw new IllegalArgumentException("Unknown broadphase: " + broadphase);
+        }
+    }
+}
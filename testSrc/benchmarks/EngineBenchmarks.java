@@ -0,0 +1,252 @@
+package benchmarks;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBPairCollisionHandler;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.HeadlessGameRunner;
+import danogl.gui.ScriptedUserInputListener;
+import danogl.util.IdentityModifiableList;
+import danogl.util.ModifiableList;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.BrickerGameManager;
+import src.gameobjects.Paddle;
+
+import java.awt.event.KeyEvent;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the engine's hot paths: finding and handling collisions at varying object counts,
+ * modifiable lists, vector arithmetic, the AABB narrowphase, the per-object update loop,
+ * and whole frames of Bricker run headless.
+ * Reading images is benchmarked by {@link danogl.gui.ImageReaderBenchmarks}.
+ * Run with gradle jmh (see {@link RunBenchmarks}).
+ * @author Dan Nirel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EngineBenchmarks {
+    private static final int LIST_SIZE = 1_000;
+    private static final float MOVING_OBJECTS_RATIO = 0.3f;
+    private static final float OBJECT_SIZE = 20;
+    private static final float SPACE_PER_OBJECT = 40;
+    private static final float DELTA_TIME = 1/120f;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+
+    /** A Bricker-like scene: a wall of static bricks, and balls moving through it */
+    @State(Scope.Thread)
+    public static class CollisionScene {
+        @Param({"100", "1000", "5000"})
+        public int objectCount;
+
+        GameObjectCollection gameObjects;
+        GameObject[] balls;
+        float worldSize;
+
+        @Setup
+        public void setUp() {
+            gameObjects = new GameObjectCollection();
+            gameObjects.layers().setLayerStatic(Layer.STATIC_OBJECTS, true);
+            var random = new Random(objectCount);
+            int columns = (int)Math.ceil(Math.sqrt(objectCount));
+            worldSize = columns * SPACE_PER_OBJECT;
+            int movingCount = (int)(objectCount * MOVING_OBJECTS_RATIO);
+            for(int i = 0 ; i < objectCount - movingCount ; i++) {
+                gameObjects.addGameObject(new GameObject(
+                        new Vector2((i % columns) * SPACE_PER_OBJECT, (i / columns) * SPACE_PER_OBJECT),
+                        new Vector2(SPACE_PER_OBJECT, OBJECT_SIZE), null), Layer.STATIC_OBJECTS);
+            }
+            balls = new GameObject[movingCount];
+            for(int i = 0 ; i < movingCount ; i++) {
+                balls[i] = new GameObject(
+                        new Vector2(random.nextFloat() * worldSize, random.nextFloat() * worldSize),
+                        new Vector2(OBJECT_SIZE, OBJECT_SIZE), null);
+                balls[i].setVelocity(new Vector2(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f)
+                        .normalized().mult(200));
+                gameObjects.addGameObject(balls[i]);
+            }
+            gameObjects.update(DELTA_TIME);
+        }
+    }
+
+    /** A frame of the collision scene: the balls move, then collisions are handled */
+    @Benchmark
+    public int handleCollisions(CollisionScene scene) {
+        scene.gameObjects.clearDirtyObjects();
+        for(var ball : scene.balls) {
+            ball.update(DELTA_TIME);
+            //keep the balls inside the scene
+            var corner = ball.getTopLeftCorner();
+            if(corner.x() < 0 || corner.x() > scene.worldSize)
+                ball.transform().setVelocityX(-ball.getVelocity().x());
+            if(corner.y() < 0 || corner.y() > scene.worldSize)
+                ball.transform().setVelocityY(-ball.getVelocity().y());
+        }
+        scene.gameObjects.update(DELTA_TIME);
+        scene.gameObjects.handleCollisions();
+        return scene.gameObjects.objectCount();
+    }
+
+    /** A list, and elements to add to it and remove from it */
+    @State(Scope.Thread)
+    public static class ListChurn {
+        @Param({"ModifiableList", "IdentityModifiableList"})
+        public String listType;
+
+        ModifiableList<Object> list;
+        Object[] elements;
+
+        @Setup
+        public void setUp() {
+            list = listType.equals("ModifiableList") ?
+                    new ModifiableList<>(true) : new IdentityModifiableList<>();
+            elements = new Object[LIST_SIZE];
+            for(int i = 0 ; i < elements.length ; i++)
+                elements[i] = new Object();
+        }
+    }
+
+    /** Adds elements, flushes, removes every other one, flushes, and removes the rest */
+    @Benchmark
+    public int addRemoveFlush(ListChurn churn) {
+        var list = churn.list;
+        var elements = churn.elements;
+        for(var element : elements)
+            list.add(element);
+        list.flushChanges();
+        for(int i = 0 ; i < elements.length ; i += 2)
+            list.remove(elements[i]);
+        list.flushChanges();
+        int size = list.size();
+        for(int i = 1 ; i < elements.length ; i += 2)
+            list.remove(elements[i]);
+        list.flushChanges();
+        return size;
+    }
+
+    /** Vectors to do arithmetic with; not constants, so the arithmetic is not folded away */
+    @State(Scope.Thread)
+    public static class Vectors {
+        Vector2 position = new Vector2(100, 200);
+        Vector2 velocity = new Vector2(30, -40);
+        Vector2 normal = Vector2.UP;
+        MutableVector2 mutablePosition = new MutableVector2(100, 200);
+        MutableVector2 mutableVelocity = new MutableVector2(30, -40);
+        MutableVector2 step = new MutableVector2();
+    }
+
+    @Benchmark
+    public float vector2Arithmetic(Vectors vectors) {
+        var v = vectors.velocity.add(vectors.position.mult(0.01f)).normalized().flipped(vectors.normal);
+        vectors.position = vectors.position.add(v.mult(DELTA_TIME)).subtract(Vector2.ONES.mult(0.001f));
+        return vectors.position.x() + v.dot(vectors.normal);
+    }
+
+    @Benchmark
+    public float mutableVector2Arithmetic(Vectors vectors) {
+        var step = vectors.step;
+        step.setXY(vectors.mutableVelocity);
+        step.selfMult(DELTA_TIME).selfAdd(Vector2.ONES);
+        vectors.mutablePosition.selfAdd(step).selfSubtract(Vector2.ONES);
+        vectors.mutableVelocity.selfMultX(-1);
+        return vectors.mutablePosition.x() + vectors.mutablePosition.y();
+    }
+
+    /** An object, one that overlaps it and one that does not */
+    @State(Scope.Thread)
+    public static class AABBPairs {
+        AABBPairCollisionHandler handler = new AABBPairCollisionHandler();
+        GameObject object = new GameObject(Vector2.ZERO, new Vector2(50, 50), null);
+        GameObject overlapping = new GameObject(new Vector2(40, 30), new Vector2(50, 50), null);
+        GameObject separate = new GameObject(new Vector2(60, 30), new Vector2(50, 50), null);
+    }
+
+    @Benchmark
+    public int computeCollisionData(AABBPairs pairs) {
+        int collisions = 0;
+        if(pairs.handler.computeCollisionData(pairs.object, pairs.overlapping) != null)
+            collisions++;
+        if(pairs.handler.computeCollisionData(pairs.object, pairs.separate) != null)
+            collisions++;
+        return collisions;
+    }
+
+    /** Falling balls, bouncing off the floor, and a paddle */
+    @State(Scope.Thread)
+    public static class UpdatedObjects {
+        GameObject[] objects;
+
+        @Setup
+        public void setUp() {
+            var random = new Random(LIST_SIZE);
+            objects = new GameObject[LIST_SIZE];
+            objects[0] = new Paddle(new Vector2(300, 450), new Vector2(100, 15), null,
+                    new ScriptedUserInputListener(), WINDOW_DIMENSIONS, 10);
+            for(int i = 1 ; i < objects.length ; i++) {
+                objects[i] = new GameObject(
+                        new Vector2(random.nextFloat() * WINDOW_DIMENSIONS.x(), 0),
+                        new Vector2(OBJECT_SIZE, OBJECT_SIZE), null);
+                objects[i].transform().setVelocity(random.nextFloat() * 100 - 50, 0);
+                objects[i].transform().setAcceleration(0, 500);
+            }
+        }
+    }
+
+    /**
+     * The per-object update loop of a frame. Should not allocate in steady state
+     * (see {@link RunBenchmarks}).
+     */
+    @Benchmark
+    public float gameObjectUpdate(UpdatedObjects updated) {
+        var objects = updated.objects;
+        for(var go : objects) {
+            go.update(DELTA_TIME);
+            var velocity = go.transform().getVelocity();
+            if(go.transform().getCenterY() > WINDOW_DIMENSIONS.y() && velocity.y() > 0)
+                go.transform().setVelocityY(-velocity.y());
+        }
+        return objects[objects.length - 1].transform().getCenterY();
+    }
+
+    /** Bricker, run headless; the paddle sweeps left and right, and a lost game is restarted */
+    @State(Scope.Thread)
+    public static class HeadlessBricker {
+        @Param({"false", "true"})
+        public boolean render;
+
+        ScriptedUserInputListener input;
+        HeadlessGameRunner runner;
+
+        @Setup
+        public void setUp() {
+            input = new ScriptedUserInputListener();
+            runner = new HeadlessGameRunner(new BrickerGameManager("Bricker", WINDOW_DIMENSIONS),
+                    WINDOW_DIMENSIONS, input, render);
+            runner.setYesNoDialogAnswer(true);
+        }
+    }
+
+    @Benchmark
+    public int brickerFrame(HeadlessBricker bricker) {
+        long frame = bricker.runner.getFrameIndex();
+        if(frame % 120 == 0)
+            bricker.input.holdKey(frame, frame % 240 == 0 ? KeyEvent.VK_LEFT : KeyEvent.VK_RIGHT, 100);
+        return bricker.runner.runFrames(1);
+    }
+}
@@ -0,0 +1,133 @@
+package benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH benchmarks with the gc profiler, and writes their results as JSON.
+ * The run fails if updating objects allocates in steady state, or, given a baseline
+ * (the results of a previous run), if a benchmark became more than 10% slower.
+ * Run with: gradle jmh [-Pjmh.include=regex] [-Pjmh.baseline=baseline.json], or
+ * benchmarks.RunBenchmarks [results.json [baseline.json]] [--filter regex]
+ * @author Dan Nirel
+ */
+public class RunBenchmarks {
+    private static final String DEFAULT_RESULTS_PATH = "build/results/jmh/results.json";
+    private static final double MAX_SLOWDOWN = 0.1;
+    private static final String ALLOCATION_FREE_BENCHMARK = "EngineBenchmarks.gameObjectUpdate";
+    //an allocation-free benchmark may still allocate a few bytes per operation (e.g. when
+    //the JIT compiles or deoptimizes); an object allocated every operation takes at least 16
+    private static final double MAX_ALLOCATION_FREE_BYTES_PER_OP = 1;
+    //the name of the gc profiler's normalized allocation rate, with and without the prefix
+    //that JMH versions before 1.36 put on secondary results
+    private static final String[] ALLOCATION_RESULT_NAMES =
+            {"gc.alloc.rate.norm", "·gc.alloc.rate.norm"};
+
+    public static void main(String[] args) throws Exception {
+        String resultsPath = DEFAULT_RESULTS_PATH, baselinePath = null, filter = null;
+        int positional = 0;
+        for(int i = 0 ; i < args.length ; i++) {
+            if(args[i].equals("--filter"))
+                filter = args[++i];
+            else if(positional++ == 0)
+                resultsPath = args[i];
+            else
+                baselinePath = args[i];
+        }
+
+        var options = new OptionsBuilder()
+                .include(filter != null ? filter : "")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultsPath)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        System.out.println("Results written to " + resultsPath);
+
+        int failures = checkAllocationFree(results);
+        if(baselinePath != null)
+            failures += compareToBaseline(results, baselinePath);
+        if(failures > 0)
+            System.exit(1);
+    }
+
+    //fails the benchmark that should not allocate if it did
+    private static int checkAllocationFree(Collection<RunResult> results) {
+        int failures = 0;
+        for(var result : results) {
+            if(!result.getParams().getBenchmark().endsWith(ALLOCATION_FREE_BENCHMARK))
+                continue;
+            var aggregated = result.getAggregatedResult();
+            for(String name : ALLOCATION_RESULT_NAMES) {
+                //JMH's secondary results map has the raw type Result
+                Result<?> allocation = aggregated.getSecondaryResults().get(name);
+                if(allocation != null && allocation.getScore() > MAX_ALLOCATION_FREE_BYTES_PER_OP) {
+                    System.out.printf(Locale.ROOT, "FAILED: %s allocates %.2f bytes per operation%n",
+                            ALLOCATION_FREE_BENCHMARK, allocation.getScore());
+                    failures++;
+                }
+            }
+        }
+        return failures;
+    }
+
+    //fails every benchmark that is slower than in the baseline by more than MAX_SLOWDOWN,
+    //beyond its error margin
+    private static int compareToBaseline(Collection<RunResult> results, String baselinePath)
+            throws IOException {
+        var baseline = new HashMap<String, Double>();
+        JsonArray baselineResults = JsonParser.parseString(
+                Files.readString(Paths.get(baselinePath))).getAsJsonArray();
+        for(JsonElement element : baselineResults) {
+            JsonObject benchmark = element.getAsJsonObject();
+            var params = new TreeMap<String, String>();
+            if(benchmark.has("params")) {
+                for(var param : benchmark.getAsJsonObject("params").entrySet())
+                    params.put(param.getKey(), param.getValue().getAsString());
+            }
+            baseline.put(key(benchmark.get("benchmark").getAsString(), params),
+                    benchmark.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+        }
+
+        int failures = 0;
+        for(var result : results) {
+            var benchmarkParams = result.getParams();
+            var params = new TreeMap<String, String>();
+            for(String name : benchmarkParams.getParamsKeys())
+                params.put(name, benchmarkParams.getParam(name));
+            Double baselineScore = baseline.get(key(benchmarkParams.getBenchmark(), params));
+            if(baselineScore == null)
+                continue;
+            var primary = result.getPrimaryResult();
+            double error = Double.isNaN(primary.getScoreError()) ? 0 : primary.getScoreError();
+            if(primary.getScore() - error > baselineScore * (1 + MAX_SLOWDOWN)) {
+                System.out.printf(Locale.ROOT, "FAILED: %s%s regressed: %.2f %s, baseline %.2f%n",
+                        benchmarkParams.getBenchmark(), params, primary.getScore(),
+                        primary.getScoreUnit(), baselineScore);
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return benchmark + params;
+    }
+}
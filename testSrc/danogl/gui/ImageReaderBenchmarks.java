@@ -0,0 +1,53 @@
+package danogl.gui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ImageReader#addTransparency(BufferedImage)} on the game's images
+ * which are read with transparency, apart from reading and decoding the files.
+ * In this package since the method is package-private.
+ * @author Dan Nirel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageReaderBenchmarks {
+    @Param({"assets/ball.png", "assets/paddle.png", "assets/heart.png"})
+    public String path;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = ImageIO.read(new File(path));
+    }
+
+    /**
+     * A new reader every time, since a reader skips the edge handling of all its later
+     * images once an image turned out to have an alpha channel.
+     */
+    @Benchmark
+    public Image addTransparency() {
+        return new ImageReader(null).addTransparency(image);
+    }
+}